@@ -0,0 +1,422 @@
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntSupplier;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * The work measured by the JMH benchmarks in the {@code benchmarks} package. JMH refuses
+ * benchmark classes in the default package, and a named package cannot refer to the default
+ * package where the codec lives, so each workload is handed over as a JDK functional interface
+ * that the benchmark looks up once per trial. Every call does a substantial batch of work, so the
+ * single interface call around it does not show in the results.
+ */
+public final class Workloads {
+
+    private static final String[] WORDS = {
+        "the", "of", "and", "to", "a", "in", "is", "that", "for", "it", "as", "was", "with", "be",
+        "by", "on", "not", "he", "this", "are", "or", "his", "from", "at", "which", "but", "have",
+        "an", "had", "they", "you", "were", "their", "one", "all", "we", "can", "her", "has",
+        "there", "been", "if", "more", "when", "will", "would", "who", "so", "no", "Huffman",
+        "code", "tree", "heap", "frequency", "alphabet", "compression", "symbol", "length",
+        "priority", "queue", "table", "stream", "decode", "encode", "bits", "optimal", "prefix",
+    };
+
+    private Workloads() {
+    }
+
+    /**
+     * Generates English-like prose: words drawn with Zipf-distributed frequencies, capitalized
+     * at the start of a sentence, with punctuation and line breaks.
+     *
+     * @param length the number of characters
+     * @return the text
+     */
+    public static String prose(int length) {
+        Random random = new Random(42);
+        double[] cumulative = zipf(WORDS.length, 1.0);
+        StringBuilder s = new StringBuilder(length + 16);
+        boolean capital = true;
+        while (s.length() < length) {
+            String word = WORDS[sample(cumulative, random)];
+            s.append(capital ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word);
+            int r = random.nextInt(20);
+            capital = r == 0;
+            s.append(r == 0 ? ". " : r == 1 ? ", " : r == 2 ? ".\n" : " ");
+            capital |= r == 2;
+        }
+        s.setLength(length);
+        return s.toString();
+    }
+
+    /**
+     * Generates characters drawn independently from an alphabet with Zipf-distributed
+     * frequencies.
+     *
+     * @param alphabetSize the number of distinct characters, starting at '!'
+     * @param skew         the Zipf exponent: 0 is uniform, larger is more skewed
+     * @param length       the number of characters
+     * @return the text
+     */
+    public static String zipf(int alphabetSize, double skew, int length) {
+        Random random = new Random(42);
+        double[] cumulative = zipf(alphabetSize, skew);
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('!' + sample(cumulative, random));
+        }
+        // make sure every character occurs, so the alphabet has the requested size; the positions
+        // are distinct, so no forced character overwrites another
+        int forced = Math.min(alphabetSize, length);
+        for (int i = 0; i < forced; i++) {
+            chars[(int) ((long) i * length / forced)] = (char) ('!' + i);
+        }
+        return new String(chars);
+    }
+
+    private static double[] zipf(int n, double skew) {
+        double[] cumulative = new double[n];
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            total += 1 / Math.pow(i + 1, skew);
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= total;
+        }
+        return cumulative;
+    }
+
+    private static int sample(double[] cumulative, Random random) {
+        double u = random.nextDouble();
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] < u) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Builds a codec for the frequencies of a text.
+     *
+     * @param text   the text whose characters to count once, up front
+     * @param method "tree" for {@link Huffman#Huffman(Map)}, "canonical" for {@link
+     *               Huffman#fromFrequencies(Map)}, "cached" for {@link Huffman#cached(Map)} or
+     *               "seed" for {@link Huffman#Huffman(String)}, which also counts the text
+     * @return a supplier that builds a new codec on every call
+     * @throws IllegalArgumentException if the method is unknown
+     */
+    public static Supplier<Object> construction(String text, String method) {
+        Map<Character, Integer> alphabet = new Huffman(text).freqMap;
+        switch (method) {
+            case "tree":
+                return () -> new Huffman(alphabet);
+            case "canonical":
+                return () -> Huffman.fromFrequencies(alphabet);
+            case "cached":
+                return () -> Huffman.cached(alphabet);
+            case "seed":
+                return () -> new Huffman(text);
+            default:
+                throw new IllegalArgumentException("unknown method " + method);
+        }
+    }
+
+    /**
+     * Compresses a text with a codec built from its own frequencies.
+     *
+     * @param text the text to compress on every call
+     * @param form "string" for {@link Huffman#compress(String)}, "bytes" for {@link
+     *             Huffman#compressToBytes(CharSequence)}, "parallel" for {@link
+     *             Huffman#compressParallel(CharSequence, int)} in 64K blocks or "interleaved" for
+     *             {@link Huffman#compressInterleaved(CharSequence)}
+     * @return a supplier that compresses the text on every call
+     * @throws IllegalArgumentException if the form is unknown
+     */
+    public static Supplier<Object> compression(String text, String form) {
+        Huffman huffman = new Huffman(text);
+        switch (form) {
+            case "string":
+                return () -> huffman.compress(text);
+            case "bytes":
+                return () -> huffman.compressToBytes(text);
+            case "parallel":
+                return () -> huffman.compressParallel(text, 1 << 16);
+            case "interleaved":
+                return () -> huffman.compressInterleaved(text);
+            default:
+                throw new IllegalArgumentException("unknown form " + form);
+        }
+    }
+
+    /**
+     * Decompresses a text compressed up front, in the same forms as {@link
+     * #compression(String, String)}.
+     *
+     * @param text the text to compress once and decompress on every call
+     * @param form "string", "bytes", "parallel" or "interleaved"
+     * @return a supplier that decompresses the text on every call
+     * @throws IllegalArgumentException if the form is unknown
+     */
+    public static Supplier<Object> decompression(String text, String form) {
+        Huffman huffman = new Huffman(text);
+        switch (form) {
+            case "string":
+                String bits = huffman.compress(text);
+                return () -> huffman.decompress(bits);
+            case "bytes":
+                PackedBits packed = huffman.compressToBytes(text);
+                return () -> huffman.decompress(packed.bytes(), packed.bitLength());
+            case "parallel":
+                PackedBlocks blocks = huffman.compressParallel(text, 1 << 16);
+                return () -> huffman.decompressParallel(blocks);
+            case "interleaved":
+                byte[] frame = huffman.compressInterleaved(text);
+                return () -> huffman.decompressInterleaved(frame);
+            default:
+                throw new IllegalArgumentException("unknown form " + form);
+        }
+    }
+
+    /**
+     * @param implementation "binary" for {@link BinaryMinHeapImpl}, "dary" followed by an arity,
+     *                       e.g. "dary4", for a {@link DaryMinHeap}, or "pairing" for {@link
+     *                       PairingHeap}
+     * @return a supplier of empty heaps
+     * @throws IllegalArgumentException if the implementation is unknown
+     */
+    private static Supplier<BinaryMinHeap<Integer, Integer>> heaps(String implementation) {
+        if (implementation.equals("binary")) {
+            return BinaryMinHeapImpl::new;
+        }
+        if (implementation.equals("pairing")) {
+            return PairingHeap::new;
+        }
+        if (implementation.matches("dary[0-9]+")) {
+            int arity = Integer.parseInt(implementation.substring(4));
+            return () -> new DaryMinHeap<Integer, Integer>(arity);
+        }
+        throw new IllegalArgumentException("unknown implementation " + implementation);
+    }
+
+    /**
+     * Runs a whole algorithm's worth of heap operations on a fresh heap.
+     *
+     * @param implementation one of the implementations of {@link #heaps(String)}
+     * @param workload       "merge" adds size keys and then, Huffman-style, extracts the two
+     *                       smallest and adds back their sum until one element is left; "mixed"
+     *                       adds size keys and then, scheduler-style, decreases the key of a
+     *                       random element 4 * size times, extracting the minimum every 4th time
+     * @param size           the number of elements
+     * @return a supplier that runs the workload on every call and returns a checksum
+     * @throws IllegalArgumentException if the implementation or workload is unknown
+     */
+    public static IntSupplier heapWorkload(String implementation, String workload, int size) {
+        Supplier<BinaryMinHeap<Integer, Integer>> heaps = heaps(implementation);
+        switch (workload) {
+            case "merge":
+                return () -> {
+                    BinaryMinHeap<Integer, Integer> heap = heaps.get();
+                    Random random = new Random(1);
+                    for (int i = 0; i < size; i++) {
+                        heap.add(1 + random.nextInt(1 << 10), i);
+                    }
+                    int next = size;
+                    while (heap.size() > 1) {
+                        int x = heap.extractMin().key;
+                        int y = heap.extractMin().key;
+                        heap.add(x + y, next++);
+                    }
+                    return heap.peek().key;
+                };
+            case "mixed":
+                return () -> {
+                    BinaryMinHeap<Integer, Integer> heap = heaps.get();
+                    Random random = new Random(2);
+                    int[] keys = new int[size];
+                    for (int i = 0; i < size; i++) {
+                        keys[i] = 1 << 30;
+                        heap.add(keys[i], i);
+                    }
+                    int sum = 0;
+                    for (int i = 0; i < 4 * size; i++) {
+                        int v = random.nextInt(size);
+                        if (heap.containsValue(v)) {
+                            keys[v] = random.nextInt(keys[v]);
+                            heap.decreaseKey(v, keys[v]);
+                        }
+                        if (i % 4 == 0 && !heap.isEmpty()) {
+                            sum += heap.extractMin().value;
+                        }
+                    }
+                    return sum;
+                };
+            default:
+                throw new IllegalArgumentException("unknown workload " + workload);
+        }
+    }
+
+    /**
+     * Builds a heap shared by several threads, pre-filled with size random keys.
+     *
+     * @param implementation "concurrent" for {@link ConcurrentMinHeap}, or "locked" for a {@link
+     *                       BinaryMinHeapImpl} behind one global lock
+     * @param size           the number of elements to pre-fill
+     * @return an operation that adds a random key for the given value, which must not be in the
+     *         heap yet, then extracts the minimum and returns its value; safe to call from many
+     *         threads at once
+     * @throws IllegalArgumentException if the implementation is unknown
+     */
+    public static LongUnaryOperator concurrentHeap(String implementation, int size) {
+        BinaryMinHeap<Integer, Long> heap;
+        switch (implementation) {
+            case "concurrent":
+                heap = new ConcurrentMinHeap<Integer, Long>();
+                break;
+            case "locked":
+                heap = new BinaryMinHeapImpl<Integer, Long>();
+                break;
+            default:
+                throw new IllegalArgumentException("unknown implementation " + implementation);
+        }
+        Random random = new Random(42);
+        // negative values, so they never clash with the non-negative ones of the benchmark
+        for (long i = 0; i < size; i++) {
+            heap.add(random.nextInt(), -1 - i);
+        }
+        if (implementation.equals("locked")) {
+            return value -> {
+                synchronized (heap) {
+                    heap.add(ThreadLocalRandom.current().nextInt(), value);
+                    return heap.extractMin().value;
+                }
+            };
+        }
+        return value -> {
+            heap.add(ThreadLocalRandom.current().nextInt(), value);
+            return heap.extractMin().value;
+        };
+    }
+
+    /**
+     * Runs a batch of heap operations on a fresh heap.
+     *
+     * @param implementation one of the implementations of {@link #heaps(String)}, or
+     *                       "pairingHandle" for {@link PairingHeap} through the handles returned
+     *                       by {@link PairingHeap#insert} rather than its value-based methods
+     * @param operation      "add" adds size random keys, "extractMin" also extracts them all and
+     *                       "decreaseKey" adds them and then decreases every key once
+     * @param size           the number of elements
+     * @return a supplier that runs the batch on every call and returns a checksum
+     * @throws IllegalArgumentException if the implementation or operation is unknown
+     */
+    public static IntSupplier heap(String implementation, String operation, int size) {
+        Random random = new Random(42);
+        Integer[] keys = new Integer[size];
+        Integer[] lower = new Integer[size];
+        Integer[] values = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = random.nextInt(Integer.MAX_VALUE);
+            lower[i] = random.nextInt(keys[i] + 1);
+            values[i] = i;
+        }
+        if (implementation.equals("pairingHandle")) {
+            return pairingHandles(operation, keys, lower, values);
+        }
+        Supplier<BinaryMinHeap<Integer, Integer>> heaps = heaps(implementation);
+        switch (operation) {
+            case "add":
+                return () -> {
+                    BinaryMinHeap<Integer, Integer> heap = heaps.get();
+                    for (int i = 0; i < size; i++) {
+                        heap.add(keys[i], values[i]);
+                    }
+                    return heap.size();
+                };
+            case "extractMin":
+                return () -> {
+                    BinaryMinHeap<Integer, Integer> heap = heaps.get();
+                    for (int i = 0; i < size; i++) {
+                        heap.add(keys[i], values[i]);
+                    }
+                    int sum = 0;
+                    while (!heap.isEmpty()) {
+                        sum += heap.extractMin().value;
+                    }
+                    return sum;
+                };
+            case "decreaseKey":
+                return () -> {
+                    BinaryMinHeap<Integer, Integer> heap = heaps.get();
+                    for (int i = 0; i < size; i++) {
+                        heap.add(keys[i], values[i]);
+                    }
+                    for (int i = 0; i < size; i++) {
+                        heap.decreaseKey(values[i], lower[i]);
+                    }
+                    return heap.peek().key;
+                };
+            default:
+                throw new IllegalArgumentException("unknown operation " + operation);
+        }
+    }
+
+    /**
+     * The operations of {@link #heap(String, String, int)} on a {@link PairingHeap}, keeping the
+     * handles from {@link PairingHeap#insert} and decreasing keys through them, with no value
+     * lookups.
+     */
+    private static IntSupplier pairingHandles(String operation, Integer[] keys, Integer[] lower,
+            Integer[] values) {
+        int size = keys.length;
+        switch (operation) {
+            case "add":
+                return () -> {
+                    PairingHeap<Integer, Integer> heap = new PairingHeap<Integer, Integer>();
+                    for (int i = 0; i < size; i++) {
+                        heap.insert(keys[i], values[i]);
+                    }
+                    return heap.size();
+                };
+            case "extractMin":
+                return () -> {
+                    PairingHeap<Integer, Integer> heap = new PairingHeap<Integer, Integer>();
+                    for (int i = 0; i < size; i++) {
+                        heap.insert(keys[i], values[i]);
+                    }
+                    int sum = 0;
+                    while (!heap.isEmpty()) {
+                        sum += heap.extractMin().value;
+                    }
+                    return sum;
+                };
+            case "decreaseKey":
+                return () -> {
+                    PairingHeap<Integer, Integer> heap = new PairingHeap<Integer, Integer>();
+                    // allocated per batch like the heap, so no handle outlives its batch
+                    PairingHeap.Handle<Integer, Integer>[] handles = newHandles(size);
+                    for (int i = 0; i < size; i++) {
+                        handles[i] = heap.insert(keys[i], values[i]);
+                    }
+                    for (int i = 0; i < size; i++) {
+                        heap.decreaseKey(handles[i], lower[i]);
+                    }
+                    return heap.peek().key;
+                };
+            default:
+                throw new IllegalArgumentException("unknown operation " + operation);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static PairingHeap.Handle<Integer, Integer>[] newHandles(int size) {
+        return (PairingHeap.Handle<Integer, Integer>[]) new PairingHeap.Handle<?, ?>[size];
+    }
+}
@@ -0,0 +1,53 @@
+package benchmarks;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler attached, so every result comes with its allocation
+ * rate ({@code gc.alloc.rate.norm} is bytes allocated per operation). Takes the usual JMH
+ * command line, e.g. {@code java -jar benchmarks/target/benchmarks.jar Codec -p form=bytes}.
+ * <p>
+ * When built with {@code -Pvector}, forks get the incubating Vector API module, so seeds are
+ * counted by its kernel; append {@code -jvmArgsAppend -Dhuffman.vector=false} to measure the
+ * scalar fallback instead.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args)
+            throws IOException, RunnerException, CommandLineOptionException {
+        CommandLineOptions command = new CommandLineOptions(args);
+        if (command.shouldHelp() || command.shouldList()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        ChainedOptionsBuilder options =
+                new OptionsBuilder().parent(command).addProfiler(GCProfiler.class);
+        if (vectorKernel()) {
+            options = options.jvmArgsPrepend("--add-modules=jdk.incubator.vector");
+        }
+        new Runner(options.build()).run();
+    }
+
+    /**
+     * @return whether the Vector API histogram kernel was packaged, so forks need its module
+     */
+    private static boolean vectorKernel() {
+        try {
+            Class.forName("VectorHistograms", false, BenchmarkMain.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compression and decompression throughput, in characters per second, over a 1M-character text.
+ * "prose" is English-like text; "skewed" draws from 64 characters with Zipf frequencies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    static final int LENGTH = 1 << 20;
+
+    @Param({"prose", "skewed"})
+    String corpus;
+
+    @Param({"string", "bytes", "parallel", "interleaved"})
+    String form;
+
+    private Supplier<Object> compress;
+    private Supplier<Object> decompress;
+
+    @Setup
+    public void setUp() {
+        String text = this.corpus.equals("prose")
+                ? WorkloadLoader.load("prose", LENGTH)
+                : WorkloadLoader.load("zipf", 64, 1.2, LENGTH);
+        this.compress = WorkloadLoader.load("compression", text, this.form);
+        this.decompress = WorkloadLoader.load("decompression", text, this.form);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LENGTH)
+    public Object compress() {
+        return this.compress.get();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LENGTH)
+    public Object decompress() {
+        return this.decompress.get();
+    }
+}
@@ -0,0 +1,90 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongUnaryOperator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of a heap shared by 1 to 8 threads, each alternating an add of a random key with an
+ * extractMin on a heap pre-filled with {@code size} elements. "concurrent" is the concurrent heap,
+ * "locked" a binary heap behind one global lock. One operation is an add plus an extract. Scaling
+ * only shows on a machine with at least as many cores as threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentHeapBenchmark {
+
+    @Param({"concurrent", "locked"})
+    String implementation;
+
+    @Param({"100000"})
+    int size;
+
+    private LongUnaryOperator addThenExtract;
+    private final AtomicLong threads = new AtomicLong();
+
+    /**
+     * Hands each thread its own range of values, so values never repeat without the threads
+     * sharing a counter.
+     */
+    @State(Scope.Thread)
+    public static class Values {
+        long next;
+
+        @Setup
+        public void setUp(ConcurrentHeapBenchmark benchmark) {
+            this.next = benchmark.threads.getAndIncrement() << 40;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        this.addThenExtract = WorkloadLoader.load("concurrentHeap", this.implementation,
+                this.size);
+    }
+
+    private long run(Values values) {
+        return this.addThenExtract.applyAsLong(values.next++);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long threads1(Values values) {
+        return run(values);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public long threads2(Values values) {
+        return run(values);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long threads4(Values values) {
+        return run(values);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long threads8(Values values) {
+        return run(values);
+    }
+}
@@ -0,0 +1,51 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to build a codec from a frequency map, across alphabet sizes and skews. The "seed" method
+ * also counts the characters of a 1M-character text.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConstructionBenchmark {
+
+    @Param({"16", "256", "4096"})
+    int alphabetSize;
+
+    @Param({"0.0", "1.0", "2.0"})
+    double skew;
+
+    @Param({"tree", "canonical", "cached", "seed"})
+    String method;
+
+    private Supplier<Object> build;
+
+    @Setup
+    public void setUp() {
+        String text = WorkloadLoader.load("zipf", this.alphabetSize, this.skew, 1 << 20);
+        this.build = WorkloadLoader.load("construction", text, this.method);
+    }
+
+    @Benchmark
+    public Object construct() {
+        return this.build.get();
+    }
+}
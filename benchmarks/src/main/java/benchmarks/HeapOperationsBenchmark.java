@@ -0,0 +1,52 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time for a batch of heap operations on a fresh heap of {@code size} random keys: adding them
+ * all, adding and extracting them all, or adding them and decreasing every key once. Subtract the
+ * "add" score from the others for the cost of the extracts or decrease-keys alone.
+ * "pairingHandle" runs the same pairing heap through its handles instead of its value map.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeapOperationsBenchmark {
+
+    @Param({"binary", "dary4", "pairing", "pairingHandle"})
+    String implementation;
+
+    @Param({"add", "extractMin", "decreaseKey"})
+    String operation;
+
+    @Param({"1000", "100000"})
+    int size;
+
+    private IntSupplier batch;
+
+    @Setup
+    public void setUp() {
+        this.batch = WorkloadLoader.load("heap", this.implementation, this.operation, this.size);
+    }
+
+    @Benchmark
+    public int run() {
+        return this.batch.getAsInt();
+    }
+}
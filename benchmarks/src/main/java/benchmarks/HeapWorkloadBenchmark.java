@@ -0,0 +1,53 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time for a whole algorithm's worth of heap operations: a Huffman-style merge, or a
+ * scheduler-style mix dominated by decrease-keys. The d-ary arities sweep from 2 to 16. Small
+ * heaps fit in cache at any arity, so the gap between arities only opens up from roughly 10^5
+ * elements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeapWorkloadBenchmark {
+
+    @Param({"binary", "dary2", "dary4", "dary8", "dary16", "pairing"})
+    String implementation;
+
+    @Param({"merge", "mixed"})
+    String workload;
+
+    @Param({"1000", "262144"})
+    int size;
+
+    private IntSupplier run;
+
+    @Setup
+    public void setUp() {
+        this.run = WorkloadLoader.load("heapWorkload", this.implementation, this.workload,
+                this.size);
+    }
+
+    @Benchmark
+    public int run() {
+        return this.run.getAsInt();
+    }
+}
@@ -0,0 +1,37 @@
+package benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Looks up the workloads of the default-package {@code Workloads} class, which benchmarks in a
+ * named package cannot refer to directly. Only called from trial setup, so reflection never runs
+ * inside a measurement.
+ */
+final class WorkloadLoader {
+
+    private WorkloadLoader() {
+    }
+
+    /**
+     * @param name the name of the static factory method on {@code Workloads}
+     * @param args its arguments, which must be Strings, Integers or Doubles
+     * @return the workload the factory returns
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T load(String name, Object... args) {
+        Class<?>[] types = new Class<?>[args.length];
+        for (int i = 0; i < args.length; i++) {
+            types[i] = args[i] instanceof Integer ? int.class
+                    : args[i] instanceof Double ? double.class : args[i].getClass();
+        }
+        try {
+            Method factory = Class.forName("Workloads").getMethod(name, types);
+            return (T) factory.invoke(null, args);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
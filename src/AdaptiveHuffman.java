@@ -0,0 +1,284 @@
+import java.util.Arrays;
+
+/**
+ * An adaptive Huffman codec (the FGK algorithm) that needs no alphabet or frequencies up front.
+ * Encoder and decoder each start from a tree holding only the NYT ("not yet transmitted") leaf
+ * and update their trees identically after every symbol, so no model is ever transmitted. A
+ * character seen for the first time is sent as the code word of the NYT leaf followed by its 16
+ * raw bits, after which the NYT leaf splits into a new NYT leaf and a leaf for the character.
+ * <p>
+ * Nodes live in primitive arrays ordered by non-increasing weight with the root first, which is
+ * the sibling property that keeps the tree a Huffman tree. The leader of a block of nodes with
+ * equal weight is therefore found by binary search, and coding a symbol with a code word of d
+ * bits in a tree of n nodes costs O(d log n), without a pre-scan or any allocation once the tree
+ * has stopped growing.
+ * <p>
+ * An instance is one side of a stream and is not thread-safe: encode and decode with separate
+ * instances, and feed the decoder the encoder's output in the order it was produced.
+ */
+public class AdaptiveHuffman implements SymbolCoder {
+
+    static final int SYMBOL_BITS = 16;
+    private static final int NONE = -1;
+
+    long[] weights;
+    int[] parents;
+    int[] lefts;
+    int[] rights;
+    int[] symbols;
+    /** The node of each character seen so far, or NONE. */
+    final int[] leaves;
+    /** The number of nodes in use. The NYT leaf is always the last of them. */
+    int nodes;
+    private int[] path;
+
+    /**
+     * Constructs a model that has not seen any characters yet.
+     */
+    public AdaptiveHuffman() {
+        this.weights = new long[16];
+        this.parents = new int[16];
+        this.lefts = new int[16];
+        this.rights = new int[16];
+        this.symbols = new int[16];
+        this.leaves = new int[1 << SYMBOL_BITS];
+        Arrays.fill(this.leaves, NONE);
+        this.path = new int[16];
+        init(0, NONE, NONE);
+        this.nodes = 1;
+    }
+
+    /**
+     * Compresses a sequence of characters, updating the model as it goes. Output of successive
+     * calls must be decompressed in the same order by a single decoding instance.
+     * <p>
+     * Runtime: O(n d log m) for n characters, code words of d bits and m nodes in the tree
+     *
+     * @param input the characters to compress
+     * @return the packed bits
+     * @throws IllegalArgumentException if input is null
+     */
+    public PackedBits compressToBytes(CharSequence input) {
+        if (input == null) {
+            throw new IllegalArgumentException("null input");
+        }
+        BitWriter out = new BitWriter(input.length() / 2 + 1);
+        for (int i = 0; i < input.length(); i++) {
+            encode(input.charAt(i), out);
+        }
+        return out.toPackedBits();
+    }
+
+    /**
+     * Decompresses the output of {@link #compressToBytes(CharSequence)}, updating the model as it
+     * goes.
+     *
+     * @param bytes     the packed bits
+     * @param bitLength the number of valid bits in {@code bytes}
+     * @return the decompressed characters
+     * @throws IllegalArgumentException if bytes is null, bitLength does not fit in bytes, or the
+     *                                  bits were not produced by a matching encoder
+     */
+    public String decompress(byte[] bytes, long bitLength) {
+        if (bytes == null || bitLength < 0 || bitLength > 8L * bytes.length) {
+            throw new IllegalArgumentException("not decodeable");
+        }
+        BitReader in = new BitReader(bytes, bitLength);
+        StringBuilder out = new StringBuilder();
+        while (in.remaining() > 0) {
+            out.append((char) decode(in));
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes the code word of a character and updates the model.
+     *
+     * @param symbol the character to encode
+     * @param out    the destination
+     * @throws IllegalArgumentException if the symbol is not a char value
+     */
+    @Override
+    public void encode(int symbol, BitWriter out) {
+        if (symbol < 0 || symbol >= 1 << SYMBOL_BITS) {
+            throw new IllegalArgumentException("not compressible");
+        }
+        int node = this.leaves[symbol];
+        if (node == NONE) {
+            writePath(this.nodes - 1, out);
+            out.write(symbol, SYMBOL_BITS);
+        } else {
+            writePath(node, out);
+        }
+        update(symbol);
+    }
+
+    /**
+     * Decodes a character and updates the model.
+     *
+     * @param in the bits to decode
+     * @return the next decoded character
+     * @throws IllegalArgumentException if the bits run out before a character is complete
+     */
+    @Override
+    public int decode(BitReader in) {
+        int node = 0;
+        while (this.lefts[node] != NONE) {
+            node = in.readBit() == 0 ? this.lefts[node] : this.rights[node];
+        }
+        int symbol = this.symbols[node];
+        if (symbol == NONE) {
+            in.refill();
+            if (in.remaining() < SYMBOL_BITS) {
+                throw new IllegalArgumentException("not decodeable");
+            }
+            symbol = (int) in.peek(SYMBOL_BITS);
+            in.skip(SYMBOL_BITS);
+        }
+        update(symbol);
+        return symbol;
+    }
+
+    /**
+     * Runtime: O(1)
+     *
+     * @return the number of distinct characters seen so far
+     */
+    public int size() {
+        return this.nodes / 2;
+    }
+
+    /**
+     * Returns the current code word of a character. It changes as the model adapts.
+     *
+     * @param c the character to look up
+     * @return its code word as a String of ones and zeroes, or null if it has not been seen yet
+     */
+    String codeOf(char c) {
+        int node = this.leaves[c];
+        if (node == NONE) {
+            return null;
+        }
+        StringBuilder code = new StringBuilder();
+        for (; this.parents[node] != NONE; node = this.parents[node]) {
+            code.append(this.rights[this.parents[node]] == node ? '1' : '0');
+        }
+        return code.reverse().toString();
+    }
+
+    private void writePath(int node, BitWriter out) {
+        int depth = 0;
+        for (; this.parents[node] != NONE; node = this.parents[node]) {
+            if (depth == this.path.length) {
+                this.path = Arrays.copyOf(this.path, depth * 2);
+            }
+            this.path[depth++] = this.rights[this.parents[node]] == node ? 1 : 0;
+        }
+        long code = 0;
+        int length = 0;
+        for (int i = depth - 1; i >= 0; i--) {
+            code = (code << 1) | this.path[i];
+            if (++length == 64) {
+                out.write(code, length);
+                code = 0;
+                length = 0;
+            }
+        }
+        out.write(code, length);
+    }
+
+    /**
+     * Counts one more occurrence of a symbol. A new symbol first splits the NYT leaf. Then, from
+     * the symbol's leaf up to the root, each node is swapped with the leader of its block unless
+     * that is its parent, and its weight is incremented, which preserves the sibling property.
+     */
+    private void update(int symbol) {
+        int node = this.leaves[symbol];
+        if (node == NONE) {
+            int nyt = this.nodes - 1;
+            if (this.nodes + 2 > this.weights.length) {
+                grow();
+            }
+            node = this.nodes;
+            init(node, nyt, symbol);
+            init(node + 1, nyt, NONE);
+            this.rights[nyt] = node;
+            this.lefts[nyt] = node + 1;
+            this.leaves[symbol] = node;
+            this.nodes += 2;
+        }
+        while (node != NONE) {
+            int leader = leader(node);
+            if (leader != node && leader != this.parents[node]) {
+                swap(leader, node);
+                node = leader;
+            }
+            this.weights[node]++;
+            node = this.parents[node];
+        }
+    }
+
+    /**
+     * @return the first node with the same weight as the given one
+     */
+    private int leader(int node) {
+        long weight = this.weights[node];
+        int low = 0;
+        int high = node;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (this.weights[mid] > weight) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Exchanges the subtrees rooted at two nodes of equal weight, neither an ancestor of the
+     * other. The nodes keep their positions and parents; only what hangs below them moves.
+     */
+    private void swap(int a, int b) {
+        int symbol = this.symbols[a];
+        this.symbols[a] = this.symbols[b];
+        this.symbols[b] = symbol;
+        int left = this.lefts[a];
+        this.lefts[a] = this.lefts[b];
+        this.lefts[b] = left;
+        int right = this.rights[a];
+        this.rights[a] = this.rights[b];
+        this.rights[b] = right;
+        adopt(a);
+        adopt(b);
+    }
+
+    private void adopt(int node) {
+        if (this.lefts[node] == NONE) {
+            if (this.symbols[node] != NONE) {
+                this.leaves[this.symbols[node]] = node;
+            }
+        } else {
+            this.parents[this.lefts[node]] = node;
+            this.parents[this.rights[node]] = node;
+        }
+    }
+
+    private void init(int node, int parent, int symbol) {
+        this.weights[node] = 0;
+        this.parents[node] = parent;
+        this.lefts[node] = NONE;
+        this.rights[node] = NONE;
+        this.symbols[node] = symbol;
+    }
+
+    private void grow() {
+        int capacity = this.weights.length * 2;
+        this.weights = Arrays.copyOf(this.weights, capacity);
+        this.parents = Arrays.copyOf(this.parents, capacity);
+        this.lefts = Arrays.copyOf(this.lefts, capacity);
+        this.rights = Arrays.copyOf(this.rights, capacity);
+        this.symbols = Arrays.copyOf(this.symbols, capacity);
+    }
+}
@@ -0,0 +1,92 @@
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class AdaptiveHuffmanTest {
+
+    private AdaptiveHuffman encoder;
+    private AdaptiveHuffman decoder;
+
+    @Before
+    public void setUp() {
+        encoder = new AdaptiveHuffman();
+        decoder = new AdaptiveHuffman();
+    }
+
+    private String roundTrip(String s) {
+        PackedBits bits = encoder.compressToBytes(s);
+        return decoder.decompress(bits.bytes(), bits.bitLength());
+    }
+
+    @Test
+    public void emptyTest() {
+        assertEquals(0, encoder.compressToBytes("").bitLength());
+        assertEquals("", roundTrip(""));
+    }
+
+    @Test
+    public void escapeTest() {
+        assertEquals(16, encoder.compressToBytes("a").bitLength());
+        assertEquals("1", encoder.codeOf('a'));
+        assertNull(encoder.codeOf('b'));
+        assertEquals(1, encoder.compressToBytes("a").bitLength());
+        assertEquals(17, encoder.compressToBytes("b").bitLength());
+        assertEquals(2, encoder.size());
+    }
+
+    @Test
+    public void adaptsTest() {
+        roundTrip("abcd");
+        String before = encoder.codeOf('d');
+        roundTrip("dddddddd");
+        assertEquals(1, encoder.codeOf('d').length());
+        assertTrue(before.length() > 1);
+        assertEquals(encoder.codeOf('a'), decoder.codeOf('a'));
+    }
+
+    @Test
+    public void roundTripTest() {
+        assertEquals("asdaasd", roundTrip("asdaasd"));
+        assertEquals("asd\u0000\uffff", roundTrip("asd\u0000\uffff"));
+        assertEquals("more asd", roundTrip("more asd"));
+    }
+
+    @Test
+    public void randomRoundTripTest() {
+        Random random = new Random(16);
+        for (int t = 0; t < 50; t++) {
+            StringBuilder s = new StringBuilder();
+            int alphabet = 1 + random.nextInt(300);
+            for (int i = random.nextInt(2000); i > 0; i--) {
+                s.append((char) (random.nextInt(alphabet) * random.nextInt(alphabet) * 7));
+            }
+            assertEquals(s.toString(), roundTrip(s.toString()));
+        }
+    }
+
+    @Test
+    public void streamTest() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        HuffmanWriter writer = new HuffmanWriter(encoder, bytes);
+        writer.write("asdaasd asd");
+        writer.close();
+        HuffmanReader reader = new HuffmanReader(decoder,
+                new ByteArrayInputStream(bytes.toByteArray()));
+        char[] buffer = new char[20];
+        assertEquals(11, reader.read(buffer, 0, 20));
+        assertEquals("asdaasd asd", new String(buffer, 0, 11));
+        assertEquals(-1, reader.read(buffer, 0, 20));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void truncatedTest() {
+        PackedBits bits = encoder.compressToBytes("as");
+        decoder.decompress(bits.bytes(), bits.bitLength() - 1);
+    }
+}
@@ -1,3 +1,4 @@
+import java.util.Collection;
 import java.util.Set;
 import java.util.NoSuchElementException;
 
@@ -8,8 +9,9 @@ import java.util.NoSuchElementException;
  * Your task will be to implement this abstract class in BinaryMinHeapImpl.java
  * <p>
  * Your constructor should not take in any arguments, and it should initialize an
- * empty heap. You do NOT have to implement build-heap, instead building a heap
- * will be done via mutiple calls to "add()"
+ * empty heap. A heap can be built by multiple calls to "add()", or all at once
+ * with "addAll()", which implementations may override with a linear-time
+ * build-heap.
  * <p>
  * As always, feel free to add package private fields and helper methods.
  *
@@ -52,6 +54,23 @@ public interface BinaryMinHeap<Key extends Comparable<Key>, V> {
      */
     void add(Key key, V value);
 
+    /**
+     * Adds every entry of a collection. If any entry is invalid, none are added.
+     * <p>
+     * Runtime: expected O(m log (n + m)) for m entries, or O(n + m) for implementations that
+     * build the heap bottom-up
+     *
+     * @param entries the key-value pairs to insert
+     * @throws IllegalArgumentException if entries is null, any key is null, or any value is
+     *                                  already in the min-heap or appears more than once
+     */
+    default void addAll(Collection<? extends Entry<Key, V>> entries) {
+        Heaps.checkEntries(this, entries);
+        for (Entry<Key, V> e : entries) {
+            add(e.key, e.value);
+        }
+    }
+
     /**
      * Updates the key of a particular value in the min-heap
      * to a smaller key.
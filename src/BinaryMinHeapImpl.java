@@ -1,4 +1,5 @@
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.NoSuchElementException;
 import java.util.Set;
@@ -22,6 +23,19 @@ public class BinaryMinHeapImpl<Key extends Comparable<Key>, V> implements Binary
         revHashMap = new HashMap<V, Key>();
     }
     
+    /**
+     * Builds a heap from a collection of entries in O(n), with the backing list and maps
+     * sized once up front.
+     *
+     * @param entries the key-value pairs to insert
+     * @throws IllegalArgumentException if entries is null, any key is null, or any value
+     *                                  appears more than once
+     */
+    public BinaryMinHeapImpl(Collection<? extends Entry<Key, V>> entries) {
+        this();
+        addAll(entries);
+    }
+    
     @Override
     public int size() {
         return arrList.size();
@@ -106,6 +120,37 @@ public class BinaryMinHeapImpl<Key extends Comparable<Key>, V> implements Binary
         }
     }
 
+    /**
+     * Appends the entries and restores the heap property bottom-up, Floyd's build-heap, unless
+     * the batch is small enough that sifting each entry up is cheaper.
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    public void addAll(Collection<? extends Entry<Key, V>> entries) {
+        Heaps.checkEntries(this, entries);
+        if (Heaps.addIndividually(arrList.size(), entries.size())) {
+            for (Entry<Key, V> e : entries) {
+                add(e.key, e.value);
+            }
+            return;
+        }
+        int capacity = (arrList.size() + entries.size()) * 4 / 3 + 1;
+        if (arrList.isEmpty()) {
+            valIndexHashMap = new HashMap<V, Integer>(capacity);
+            revHashMap = new HashMap<V, Key>(capacity);
+        }
+        arrList.ensureCapacity(arrList.size() + entries.size());
+        for (Entry<Key, V> e : entries) {
+            revHashMap.put(e.value, e.key);
+            valIndexHashMap.put(e.value, arrList.size());
+            arrList.add(new BinaryMinHeap.Entry<Key, V>(e.key, e.value));
+        }
+        for (int i = arrList.size() / 2 - 1; i >= 0; i--) {
+            minHeapify(i);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -1,5 +1,7 @@
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 import org.junit.Before;
@@ -208,4 +210,45 @@ public class BinaryMinHeapImplTest {
         assertTrue(empty.values().contains(4));
         assertFalse(empty.values().contains(30));
     }
+    
+    @Test
+    public void addAllTest() {
+        List<BinaryMinHeap.Entry<Integer, Integer>> entries = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            entries.add(new BinaryMinHeap.Entry<>((i * 37) % 100, i));
+        }
+        empty = new BinaryMinHeapImpl<>(entries);
+        assertEquals(100, empty.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.valueOf(i), empty.arrList.get(empty.valIndexHashMap.get(i)).value);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.valueOf(i), empty.extractMin().key);
+        }
+    }
+    
+    @Test
+    public void addAllToNotEmptyTest() {
+        empty.add(5, 100);
+        List<BinaryMinHeap.Entry<Integer, Integer>> entries = new ArrayList<>();
+        entries.add(new BinaryMinHeap.Entry<>(3, 1));
+        empty.addAll(entries);
+        assertEquals(Integer.valueOf(3), empty.peek().key);
+        assertEquals(2, empty.size());
+    }
+    
+    @Test
+    public void invalidAddAllTest() {
+        empty.add(5, 1);
+        List<BinaryMinHeap.Entry<Integer, Integer>> entries = new ArrayList<>();
+        entries.add(new BinaryMinHeap.Entry<>(3, 2));
+        entries.add(new BinaryMinHeap.Entry<>(3, 1));
+        try {
+            empty.addAll(entries);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(1, empty.size());
+            assertFalse(empty.containsValue(2));
+        }
+    }
 }
@@ -0,0 +1,179 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Reads bits, most significant bit first, from a byte array packed by {@link BitWriter}. Up to 64
+ * upcoming bits are kept left-aligned in an accumulator so that a decoder can peek at several
+ * bits at once and then consume only as many as the matched code word needs.
+ * <p>
+ * A reader over an {@link InputStream} expects the trailer written by {@link BitWriter#finish()}
+ * and always holds back the most recently read byte, since it cannot tell the trailer apart from
+ * data until the stream ends. Until then {@link #remaining()} is {@link Long#MAX_VALUE}.
+ */
+public class BitReader {
+
+    byte[] buffer;
+    int position;
+    int limit;
+    long accumulator;
+    int available;
+    long remaining;
+    InputStream source;
+    int held = -1;
+
+    /**
+     * Constructs a reader over the first {@code bitLength} bits of {@code bytes}.
+     *
+     * @param bytes     the packed bits
+     * @param bitLength the number of valid bits
+     * @throws IllegalArgumentException if bytes is null or bitLength does not fit in bytes
+     */
+    public BitReader(byte[] bytes, long bitLength) {
+        if (bytes == null) {
+            throw new IllegalArgumentException("null input");
+        }
+        if (bitLength < 0 || bitLength > 8L * bytes.length) {
+            throw new IllegalArgumentException("invalid bit length");
+        }
+        this.buffer = bytes;
+        this.position = 0;
+        this.limit = (int) ((bitLength + 7) >>> 3);
+        this.remaining = bitLength;
+    }
+
+    /**
+     * Constructs a reader over the bits of {@code bytes} from {@code fromBit} up to, but not
+     * including, {@code toBit}.
+     *
+     * @param bytes   the packed bits
+     * @param fromBit the offset of the first bit to read
+     * @param toBit   the offset one past the last bit to read
+     * @throws IllegalArgumentException if bytes is null or the range does not fit in bytes
+     */
+    public BitReader(byte[] bytes, long fromBit, long toBit) {
+        this(bytes, toBit);
+        if (fromBit < 0 || fromBit > toBit) {
+            throw new IllegalArgumentException("invalid bit range");
+        }
+        this.position = (int) (fromBit >>> 3);
+        this.remaining = toBit - (fromBit & ~7L);
+        refill();
+        skip((int) (fromBit & 7));
+    }
+
+    /**
+     * Constructs a reader that pulls packed bytes from a stream through a fixed-size buffer.
+     *
+     * @param source     the stream to read from, ending with a trailer byte
+     * @param bufferSize the number of bytes to read from the source at a time
+     */
+    public BitReader(InputStream source, int bufferSize) {
+        this.buffer = new byte[Math.max(bufferSize, 16)];
+        this.source = source;
+        this.remaining = Long.MAX_VALUE;
+    }
+
+    /**
+     * Runtime: O(1)
+     *
+     * @return the number of bits left to read, or {@link Long#MAX_VALUE} if the end of a stream
+     *         has not been reached yet
+     */
+    public long remaining() {
+        return this.remaining;
+    }
+
+    /**
+     * Tops the accumulator up to at least 57 bits, or as many as are left.
+     */
+    void refill() {
+        while (this.available <= 56 && (this.position < this.limit || fill())) {
+            this.accumulator |= (this.buffer[this.position++] & 0xFFL) << (56 - this.available);
+            this.available += 8;
+        }
+    }
+
+    /**
+     * Reads the next chunk of the source into the buffer, holding back its last byte.
+     *
+     * @return true if there are more bytes to consume
+     * @throws IllegalArgumentException if the stream ends with an invalid trailer
+     * @throws UncheckedIOException     if the source throws
+     */
+    private boolean fill() {
+        if (this.source == null) {
+            return false;
+        }
+        try {
+            while (true) {
+                int start = 0;
+                if (this.held >= 0) {
+                    this.buffer[0] = (byte) this.held;
+                    start = 1;
+                }
+                int n = this.source.read(this.buffer, start, this.buffer.length - start);
+                if (n < 0) {
+                    int trailer = this.held;
+                    this.source = null;
+                    long valid = trailer == 0 ? 0 : this.available - (8 - trailer);
+                    if (trailer < 0 || trailer > 8 || valid < 0
+                            || trailer == 0 && this.available != 0) {
+                        throw new IllegalArgumentException("not decodeable");
+                    }
+                    this.remaining = valid;
+                    return false;
+                }
+                int total = start + n;
+                if (total > 0) {
+                    this.held = this.buffer[total - 1] & 0xFF;
+                    this.position = 0;
+                    this.limit = total - 1;
+                    if (this.limit > 0) {
+                        return true;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the next {@code count} bits without consuming them. Bits past the end read as zero.
+     * The caller must have called {@link #refill()} first.
+     *
+     * @param count the number of bits to peek at, between 1 and 57
+     * @return the bits, right-aligned
+     */
+    long peek(int count) {
+        return this.accumulator >>> (64 - count);
+    }
+
+    /**
+     * Consumes bits previously returned by {@link #peek(int)}.
+     *
+     * @param count the number of bits to drop
+     */
+    void skip(int count) {
+        this.accumulator <<= count;
+        this.available -= count;
+        this.remaining -= count;
+    }
+
+    /**
+     * Reads a single bit.
+     *
+     * @return 0 or 1
+     * @throws IllegalArgumentException if there are no bits left
+     */
+    public int readBit() {
+        refill();
+        if (this.remaining == 0) {
+            throw new IllegalArgumentException("not decodeable");
+        }
+        int bit = (int) (this.accumulator >>> 63);
+        skip(1);
+        return bit;
+    }
+}
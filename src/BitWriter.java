@@ -0,0 +1,152 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Packs variable-length code words into a byte array, most significant bit first. Bits are
+ * gathered in a 64-bit accumulator and only spilled to the backing array a byte at a time, so
+ * writing a code word never allocates.
+ * <p>
+ * A writer either collects everything in a growing array, or spills a fixed-size buffer to an
+ * {@link OutputStream} whenever it fills up. Streamed output ends with a trailer byte holding the
+ * number of valid bits (1 to 8) in the byte before it, or 0 if nothing was written, which {@link
+ * BitReader} uses to find the end of the data.
+ */
+public class BitWriter {
+
+    byte[] buffer;
+    int position;
+    long accumulator;
+    int pending;
+    long bitLength;
+    OutputStream sink;
+
+    /**
+     * Constructs an empty writer.
+     *
+     * @param expectedBytes a hint for the initial capacity of the backing array
+     */
+    public BitWriter(int expectedBytes) {
+        this.buffer = new byte[Math.max(expectedBytes, 16)];
+    }
+
+    public BitWriter() {
+        this(16);
+    }
+
+    /**
+     * Constructs a writer that spills to a stream through a fixed-size buffer.
+     *
+     * @param sink       the stream to write packed bytes to
+     * @param bufferSize the number of bytes to buffer between writes to the sink
+     */
+    public BitWriter(OutputStream sink, int bufferSize) {
+        this.buffer = new byte[Math.max(bufferSize, 16)];
+        this.sink = sink;
+    }
+
+    /**
+     * Appends the low {@code length} bits of {@code code}, most significant bit first.
+     *
+     * @param code   the right-aligned code word
+     * @param length the number of bits to write, between 0 and 64
+     * @throws IllegalArgumentException if length is out of range
+     */
+    public void write(long code, int length) {
+        if (length < 0 || length > 64) {
+            throw new IllegalArgumentException("invalid code length");
+        }
+        if (length > 56) {
+            write(code >>> 32, length - 32);
+            code &= 0xFFFFFFFFL;
+            length = 32;
+        }
+        this.accumulator = (this.accumulator << length) | (code & mask(length));
+        this.pending += length;
+        this.bitLength += length;
+        while (this.pending >= 8) {
+            this.pending -= 8;
+            if (this.position == this.buffer.length) {
+                if (this.sink != null) {
+                    flush();
+                } else {
+                    this.buffer = Arrays.copyOf(this.buffer, this.buffer.length * 2);
+                }
+            }
+            this.buffer[this.position++] = (byte) (this.accumulator >>> this.pending);
+        }
+    }
+
+    /**
+     * Runtime: O(1)
+     *
+     * @return the number of bits written so far
+     */
+    public long bitLength() {
+        return this.bitLength;
+    }
+
+    /**
+     * Pads the final partial byte with zeroes and returns everything written so far. The writer
+     * should not be used afterwards.
+     *
+     * @return the packed bits
+     */
+    public PackedBits toPackedBits() {
+        int length = this.position + (this.pending > 0 ? 1 : 0);
+        byte[] bytes = Arrays.copyOf(this.buffer, length);
+        if (this.pending > 0) {
+            bytes[this.position] = (byte) (this.accumulator << (8 - this.pending));
+        }
+        return new PackedBits(bytes, this.bitLength);
+    }
+
+    /**
+     * Writes all complete bytes to the sink. Bits of a partial byte stay buffered until more
+     * bits or {@link #finish()} complete it.
+     *
+     * @throws UncheckedIOException if the sink throws
+     * @throws IllegalStateException if this writer has no sink
+     */
+    public void flush() {
+        if (this.sink == null) {
+            throw new IllegalStateException("no sink");
+        }
+        try {
+            this.sink.write(this.buffer, 0, this.position);
+            this.position = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Pads and writes the final partial byte followed by the trailer byte, then flushes the
+     * sink. The writer should not be used afterwards.
+     *
+     * @throws UncheckedIOException if the sink throws
+     * @throws IllegalStateException if this writer has no sink
+     */
+    public void finish() {
+        int trailer = this.pending > 0 ? this.pending : (this.bitLength == 0 ? 0 : 8);
+        if (this.pending > 0) {
+            write(0, 8 - this.pending);
+            this.bitLength -= 8 - trailer;
+        }
+        if (this.position == this.buffer.length) {
+            flush();
+        }
+        this.buffer[this.position++] = (byte) trailer;
+        flush();
+        try {
+            this.sink.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static long mask(int length) {
+        return length == 64 ? -1L : (1L << length) - 1;
+    }
+}
@@ -0,0 +1,38 @@
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs a body once for every block index in a range, splitting the range in half on a {@link
+ * java.util.concurrent.ForkJoinPool} until each task covers a single block.
+ */
+final class BlockTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int from;
+    private final int to;
+    private final IntConsumer body;
+
+    /**
+     * @param from the first block, inclusive
+     * @param to   the last block, exclusive
+     * @param body the work to run for each block
+     */
+    BlockTask(int from, int to, IntConsumer body) {
+        this.from = from;
+        this.to = to;
+        this.body = body;
+    }
+
+    @Override
+    protected void compute() {
+        if (this.to - this.from <= 1) {
+            if (this.to > this.from) {
+                this.body.accept(this.from);
+            }
+            return;
+        }
+        int mid = (this.from + this.to) >>> 1;
+        invokeAll(new BlockTask(this.from, mid, this.body), new BlockTask(mid, this.to, this.body));
+    }
+}
@@ -0,0 +1,286 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A Huffman codec over the 256 byte values, for binary payloads. It works on {@code byte[]} and
+ * {@link ByteBuffer} directly, so bytes are never widened into chars, boxed, or routed through a
+ * String. Frequencies and code words live in fixed 256-entry primitive arrays indexed by the
+ * unsigned byte value.
+ * <p>
+ * Code lengths come from the same construction as {@link Huffman#fromFrequencies(java.util.Map)}
+ * ({@link CodeLengths}), and code words are canonical, so {@link #header()} is enough for another
+ * instance to decode.
+ */
+public class ByteHuffman {
+
+    static final int ALPHABET = 256;
+
+    final CodeTable codeTable;
+    /** The code word of each byte value, or 0 with a length of 0 if it is not in the alphabet. */
+    private final long[] codes = new long[ALPHABET];
+    private final int[] lengths = new int[ALPHABET];
+    /** The frequency of each byte value, or null if built from a header. */
+    private final int[] frequencies;
+
+    /**
+     * Constructs a codec from the byte frequencies of a seed.
+     *
+     * @param seed the bytes from which to deduce the alphabet and frequencies
+     * @throws IllegalArgumentException if the seed is null or has fewer than 2 distinct bytes
+     */
+    public ByteHuffman(byte[] seed) {
+        this(count(seed));
+    }
+
+    /**
+     * Constructs a codec from the byte frequencies of the remaining bytes of a buffer. The
+     * buffer's position is not changed.
+     *
+     * @param seed the bytes from which to deduce the alphabet and frequencies
+     * @throws IllegalArgumentException if the seed is null or has fewer than 2 distinct bytes
+     */
+    public ByteHuffman(ByteBuffer seed) {
+        this(count(seed));
+    }
+
+    /**
+     * Constructs a codec from a histogram of byte values. Values with a frequency of 0 are left
+     * out of the alphabet.
+     *
+     * @param frequencies the frequency of each unsigned byte value, 256 entries
+     * @throws IllegalArgumentException if frequencies is null, does not have 256 entries, has a
+     *                                  negative entry, or has fewer than 2 positive ones
+     */
+    public ByteHuffman(int[] frequencies) {
+        if (frequencies == null || frequencies.length != ALPHABET) {
+            throw new IllegalArgumentException("need 256 frequencies");
+        }
+        int size = 0;
+        for (int f : frequencies) {
+            if (f < 0) {
+                throw new IllegalArgumentException("negative frequency");
+            }
+            size += f > 0 ? 1 : 0;
+        }
+        if (size < 2) {
+            throw new IllegalArgumentException("alphabet fewer than 2 symbols");
+        }
+        int[] symbols = new int[size];
+        int[] freqs = new int[size];
+        int i = 0;
+        for (int b = 0; b < ALPHABET; b++) {
+            if (frequencies[b] > 0) {
+                symbols[i] = b;
+                freqs[i++] = frequencies[b];
+            }
+        }
+        this.frequencies = frequencies.clone();
+        this.codeTable = CodeTable.canonical(symbols, CodeLengths.of(freqs));
+        fillCodes();
+    }
+
+    private ByteHuffman(CodeTable table) {
+        this.frequencies = null;
+        this.codeTable = table;
+        fillCodes();
+    }
+
+    private void fillCodes() {
+        for (int i = 0; i < this.codeTable.size(); i++) {
+            int b = this.codeTable.symbols[i];
+            this.codes[b] = this.codeTable.codes[i];
+            this.lengths[b] = this.codeTable.lengths[i];
+        }
+    }
+
+    /**
+     * Constructs a codec from a header written by {@link #header()}.
+     *
+     * @param header the encoded code lengths
+     * @return a codec with the same code words as the one that wrote the header
+     * @throws IllegalArgumentException if the header is null, corrupt, describes fewer than 2
+     *                                  symbols, or describes a symbol that is not a byte value
+     */
+    public static ByteHuffman fromHeader(byte[] header) {
+        CodeTable table = CodeTable.fromHeader(header);
+        if (table.size() < 2) {
+            throw new IllegalArgumentException("alphabet fewer than 2 symbols");
+        }
+        for (int symbol : table.symbols) {
+            if (symbol >= ALPHABET) {
+                throw new IllegalArgumentException("symbol is not a byte");
+            }
+        }
+        return new ByteHuffman(table);
+    }
+
+    /**
+     * @return the encoded code lengths, from which {@link #fromHeader(byte[])} rebuilds an
+     *         identical codec
+     */
+    public byte[] header() {
+        return this.codeTable.toHeader();
+    }
+
+    static int[] count(byte[] seed) {
+        if (seed == null) {
+            throw new IllegalArgumentException("null seed");
+        }
+        int[] counts = new int[ALPHABET];
+        for (byte b : seed) {
+            counts[b & 0xFF]++;
+        }
+        return counts;
+    }
+
+    static int[] count(ByteBuffer seed) {
+        if (seed == null) {
+            throw new IllegalArgumentException("null seed");
+        }
+        int[] counts = new int[ALPHABET];
+        if (seed.hasArray()) {
+            byte[] array = seed.array();
+            int end = seed.arrayOffset() + seed.limit();
+            for (int i = seed.arrayOffset() + seed.position(); i < end; i++) {
+                counts[array[i] & 0xFF]++;
+            }
+        } else {
+            for (int i = seed.position(); i < seed.limit(); i++) {
+                counts[seed.get(i) & 0xFF]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Compresses bytes into packed bits.
+     *
+     * @param input the bytes to compress, can be empty
+     * @return the binary encoding of the input
+     * @throws IllegalArgumentException if the input is null or contains bytes that are not in the
+     *                                  alphabet
+     */
+    public PackedBits compress(byte[] input) {
+        if (input == null) {
+            throw new IllegalArgumentException("null input");
+        }
+        BitWriter out = new BitWriter(input.length / 2 + 1);
+        for (byte b : input) {
+            write(b & 0xFF, out);
+        }
+        return out.toPackedBits();
+    }
+
+    /**
+     * Compresses the remaining bytes of a buffer into packed bits, advancing its position to its
+     * limit.
+     *
+     * @param input the bytes to compress, can be empty
+     * @return the binary encoding of the input
+     * @throws IllegalArgumentException if the input is null or contains bytes that are not in the
+     *                                  alphabet
+     */
+    public PackedBits compress(ByteBuffer input) {
+        if (input == null) {
+            throw new IllegalArgumentException("null input");
+        }
+        BitWriter out = new BitWriter(input.remaining() / 2 + 1);
+        if (input.hasArray()) {
+            byte[] array = input.array();
+            int end = input.arrayOffset() + input.limit();
+            for (int i = input.arrayOffset() + input.position(); i < end; i++) {
+                write(array[i] & 0xFF, out);
+            }
+            input.position(input.limit());
+        } else {
+            while (input.hasRemaining()) {
+                write(input.get() & 0xFF, out);
+            }
+        }
+        return out.toPackedBits();
+    }
+
+    private void write(int b, BitWriter out) {
+        int length = this.lengths[b];
+        if (length == 0) {
+            throw new IllegalArgumentException("not compressible");
+        }
+        out.write(this.codes[b], length);
+    }
+
+    /**
+     * Decompresses packed bits, as produced by {@link #compress(byte[])}.
+     *
+     * @param input     the packed bits to decompress
+     * @param bitLength the number of valid bits in input
+     * @return the decoded bytes
+     * @throws IllegalArgumentException if the input is null, bitLength does not fit in the input,
+     *                                  or the bits contain a sequence that is not decodable
+     */
+    public byte[] decompress(byte[] input, long bitLength) {
+        if (input == null) {
+            throw new IllegalArgumentException("null input");
+        }
+        BitReader in = new BitReader(input, bitLength);
+        DecodeTable decoder = this.codeTable.decoder();
+        byte[] out = new byte[Math.max(16, input.length * 2)];
+        int n = 0;
+        while (in.remaining() > 0) {
+            if (n == out.length) {
+                out = Arrays.copyOf(out, n * 2);
+            }
+            out[n++] = (byte) decoder.read(in);
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Decompresses packed bits into a buffer.
+     *
+     * @param input the packed bits to decompress
+     * @param out   the buffer to write the decoded bytes to, from its position on
+     * @return the number of bytes written
+     * @throws IllegalArgumentException if either argument is null, or the bits contain a sequence
+     *                                  that is not decodable
+     * @throws java.nio.BufferOverflowException if the decoded bytes do not fit in the buffer
+     */
+    public int decompress(PackedBits input, ByteBuffer out) {
+        if (input == null || out == null) {
+            throw new IllegalArgumentException("null argument");
+        }
+        BitReader in = new BitReader(input.bytes(), input.bitLength());
+        DecodeTable decoder = this.codeTable.decoder();
+        int start = out.position();
+        while (in.remaining() > 0) {
+            out.put((byte) decoder.read(in));
+        }
+        return out.position() - start;
+    }
+
+    /**
+     * @param b an unsigned byte value
+     * @return the length of its code word, or 0 if it is not in the alphabet
+     */
+    public int codeLength(int b) {
+        return b < 0 || b >= ALPHABET ? 0 : this.lengths[b];
+    }
+
+    /**
+     * Computes the expected number of bits per byte of the seed.
+     *
+     * @return the frequency-weighted mean code length
+     * @throws IllegalStateException if this codec was built from a header and has no frequencies
+     */
+    public double expectedEncodingLength() {
+        if (this.frequencies == null) {
+            throw new IllegalStateException("no frequencies");
+        }
+        long bits = 0;
+        long total = 0;
+        for (int b = 0; b < ALPHABET; b++) {
+            bits += (long) this.frequencies[b] * this.lengths[b];
+            total += this.frequencies[b];
+        }
+        return (double) bits / total;
+    }
+}
@@ -0,0 +1,90 @@
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ByteHuffmanTest {
+
+    private ByteHuffman huffman;
+
+    @Before
+    public void setUp() {
+        huffman = new ByteHuffman(new byte[] {0, 0, 0, 1, 1, -1});
+    }
+
+    @Test
+    public void compressTest() {
+        PackedBits bits = huffman.compress(new byte[] {0, 1, -1, 0});
+        assertEquals(6, bits.bitLength());
+        assertArrayEquals(new byte[] {0x58}, bits.bytes());
+        assertEquals(1, huffman.codeLength(0));
+        assertEquals(2, huffman.codeLength(255));
+        assertEquals(0, huffman.codeLength(2));
+        assertEquals(1.5, huffman.expectedEncodingLength(), 0.01);
+    }
+
+    @Test
+    public void roundTripTest() {
+        byte[] input = {1, -1, 0, 0, -1};
+        PackedBits bits = huffman.compress(input);
+        assertArrayEquals(input, huffman.decompress(bits.bytes(), bits.bitLength()));
+        assertArrayEquals(new byte[0], huffman.decompress(new byte[0], 0));
+    }
+
+    @Test
+    public void byteBufferTest() {
+        ByteBuffer input = ByteBuffer.wrap(new byte[] {2, 0, 1, -1, 0});
+        input.position(1);
+        PackedBits bits = huffman.compress(input);
+        assertEquals(5, input.position());
+        ByteBuffer direct = ByteBuffer.allocateDirect(8);
+        direct.put(new byte[] {0, 1, -1, 0}).flip();
+        assertEquals(bits.toBitString(), huffman.compress(direct).toBitString());
+        ByteBuffer out = ByteBuffer.allocate(10);
+        assertEquals(4, huffman.decompress(bits, out));
+        assertArrayEquals(new byte[] {0, 1, -1, 0}, java.util.Arrays.copyOf(out.array(), 4));
+        assertEquals(huffman.header().length,
+                new ByteHuffman(ByteBuffer.wrap(new byte[] {0, 0, 0, 1, 1, -1})).header().length);
+    }
+
+    @Test
+    public void headerTest() {
+        ByteHuffman copy = ByteHuffman.fromHeader(huffman.header());
+        PackedBits bits = huffman.compress(new byte[] {-1, 1, 0});
+        assertArrayEquals(new byte[] {-1, 1, 0}, copy.decompress(bits.bytes(), bits.bitLength()));
+    }
+
+    @Test
+    public void randomRoundTripTest() {
+        Random random = new Random(21);
+        for (int t = 0; t < 20; t++) {
+            byte[] input = new byte[random.nextInt(5000) + 2];
+            for (int i = 0; i < input.length; i++) {
+                input[i] = (byte) (random.nextGaussian() * (t + 1) * 4);
+            }
+            input[0] = 0;
+            input[1] = 1;
+            ByteHuffman codec = new ByteHuffman(input);
+            PackedBits bits = codec.compress(input);
+            assertArrayEquals(input, codec.decompress(bits.bytes(), bits.bitLength()));
+        }
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void notCompressibleTest() {
+        huffman.compress(new byte[] {2});
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void singleSymbolTest() {
+        new ByteHuffman(new byte[] {7, 7, 7});
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void wrongHistogramTest() {
+        new ByteHuffman(new int[255]);
+    }
+}
@@ -0,0 +1,198 @@
+import java.util.Arrays;
+
+/**
+ * Computes optimal prefix code lengths without building a tree, using the in-place algorithm of
+ * Moffat and Katajainen. Given weights sorted in increasing order it runs in O(n) time and O(1)
+ * extra space: three passes over the weight array turn it first into parent pointers, then into
+ * internal node depths, and finally into the code length of each leaf.
+ */
+final class CodeLengths {
+
+    private CodeLengths() {
+    }
+
+    /**
+     * Replaces each weight with the length of its code word in an optimal prefix code.
+     * <p>
+     * Runtime: O(n)
+     *
+     * @param a the weights, sorted in non-decreasing order, all positive
+     */
+    static void inPlace(long[] a) {
+        int n = a.length;
+        if (n == 0) {
+            return;
+        }
+        if (n == 1) {
+            a[0] = 0;
+            return;
+        }
+        // first pass, left to right: combine the two smallest weights, leaving parent pointers
+        a[0] += a[1];
+        int root = 0;
+        int leaf = 2;
+        for (int next = 1; next < n - 1; next++) {
+            if (leaf >= n || a[root] < a[leaf]) {
+                a[next] = a[root];
+                a[root++] = next;
+            } else {
+                a[next] = a[leaf++];
+            }
+            if (leaf >= n || (root < next && a[root] < a[leaf])) {
+                a[next] += a[root];
+                a[root++] = next;
+            } else {
+                a[next] += a[leaf++];
+            }
+        }
+        // second pass, right to left: turn parent pointers into internal node depths
+        a[n - 2] = 0;
+        for (int next = n - 3; next >= 0; next--) {
+            a[next] = a[(int) a[next]] + 1;
+        }
+        // third pass, right to left: hand out leaf depths
+        int available = 1;
+        int used = 0;
+        int depth = 0;
+        root = n - 2;
+        int next = n - 1;
+        while (available > 0) {
+            while (root >= 0 && a[root] == depth) {
+                used++;
+                root--;
+            }
+            while (available > used) {
+                a[next--] = depth;
+                available--;
+            }
+            available = 2 * used;
+            depth++;
+            used = 0;
+        }
+    }
+
+    /**
+     * Computes code lengths for symbols with arbitrary frequencies. The frequencies are sorted
+     * once, ties broken by position, before running {@link #inPlace(long[])}.
+     * <p>
+     * Runtime: O(n log n)
+     *
+     * @param freqs the frequency of each symbol, all positive
+     * @return the code length of each symbol, in the same order as freqs
+     */
+    static int[] of(int[] freqs) {
+        long[] order = new long[freqs.length];
+        for (int i = 0; i < freqs.length; i++) {
+            order[i] = ((long) freqs[i] << 32) | i;
+        }
+        Arrays.sort(order);
+        long[] weights = new long[freqs.length];
+        for (int i = 0; i < order.length; i++) {
+            weights[i] = order[i] >>> 32;
+        }
+        inPlace(weights);
+        int[] lengths = new int[freqs.length];
+        for (int i = 0; i < order.length; i++) {
+            lengths[(int) order[i]] = (int) weights[i];
+        }
+        return lengths;
+    }
+
+    /**
+     * Computes code lengths for symbols whose frequencies are already sorted.
+     * <p>
+     * Runtime: O(n)
+     *
+     * @param sortedFreqs the frequency of each symbol in non-decreasing order, all positive
+     * @return the code length of each symbol, in the same order as sortedFreqs
+     * @throws IllegalArgumentException if the frequencies are not sorted
+     */
+    static int[] ofSorted(int[] sortedFreqs) {
+        long[] weights = new long[sortedFreqs.length];
+        for (int i = 0; i < sortedFreqs.length; i++) {
+            if (i > 0 && sortedFreqs[i] < sortedFreqs[i - 1]) {
+                throw new IllegalArgumentException("frequencies not sorted");
+            }
+            weights[i] = sortedFreqs[i];
+        }
+        inPlace(weights);
+        int[] lengths = new int[sortedFreqs.length];
+        for (int i = 0; i < lengths.length; i++) {
+            lengths[i] = (int) weights[i];
+        }
+        return lengths;
+    }
+
+    /**
+     * Computes optimal code lengths subject to a maximum length, using the package-merge
+     * algorithm of Larmore and Hirschberg. Each of the {@code maxLength} levels holds the leaves
+     * merged with packages of adjacent pairs from the level below; the cheapest 2n - 2 items of
+     * the top level, expanded back down through their packages, give each symbol its length.
+     * <p>
+     * Runtime: O(n log n + n * maxLength)
+     *
+     * @param freqs     the frequency of each symbol, all positive
+     * @param maxLength the longest code word allowed
+     * @return the code length of each symbol, in the same order as freqs
+     * @throws IllegalArgumentException if 2 to the power maxLength is less than the number of
+     *                                  symbols, or maxLength is more than 64
+     */
+    static int[] limited(int[] freqs, int maxLength) {
+        int n = freqs.length;
+        if (maxLength < 1 || maxLength > 64 || (maxLength < 31 && (1 << maxLength) < n)) {
+            throw new IllegalArgumentException("max code length too small for alphabet");
+        }
+        int[] lengths = new int[n];
+        if (n < 2) {
+            return lengths;
+        }
+        long[] order = new long[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = ((long) freqs[i] << 32) | i;
+        }
+        Arrays.sort(order);
+
+        // levels[0] is the deepest level and holds only leaves; a kind of -1 marks a package
+        long[][] weights = new long[maxLength][];
+        int[][] kinds = new int[maxLength][];
+        weights[0] = new long[n];
+        kinds[0] = new int[n];
+        for (int i = 0; i < n; i++) {
+            weights[0][i] = order[i] >>> 32;
+            kinds[0][i] = (int) order[i];
+        }
+        for (int level = 1; level < maxLength; level++) {
+            long[] below = weights[level - 1];
+            int packages = below.length / 2;
+            weights[level] = new long[n + packages];
+            kinds[level] = new int[n + packages];
+            int leaf = 0;
+            int pack = 0;
+            for (int k = 0; k < n + packages; k++) {
+                long packWeight = pack < packages ? below[2 * pack] + below[2 * pack + 1] : 0;
+                if (pack >= packages || leaf < n && (order[leaf] >>> 32) <= packWeight) {
+                    weights[level][k] = order[leaf] >>> 32;
+                    kinds[level][k] = (int) order[leaf++];
+                } else {
+                    weights[level][k] = packWeight;
+                    kinds[level][k] = -1;
+                    pack++;
+                }
+            }
+        }
+
+        int take = 2 * n - 2;
+        for (int level = maxLength - 1; level >= 0 && take > 0; level--) {
+            int packages = 0;
+            for (int k = 0; k < take; k++) {
+                if (kinds[level][k] < 0) {
+                    packages++;
+                } else {
+                    lengths[kinds[level][k]]++;
+                }
+            }
+            take = 2 * packages;
+        }
+        return lengths;
+    }
+}
@@ -0,0 +1,451 @@
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * An immutable table of prefix code words. Each code word is kept right-aligned in a
+ * {@code long} next to its length in bits, so encoding a symbol is a lookup followed by a single
+ * {@link BitWriter#write(long, int)}.
+ * <p>
+ * Small or dense alphabets are indexed directly by symbol. Sparse alphabets, whose largest symbol
+ * is far larger than the number of symbols, use an open-addressing table with linear probing
+ * instead, guarded by a bitset so that symbols outside the alphabet are usually rejected without
+ * probing. Neither layout boxes or allocates on lookup.
+ */
+public final class CodeTable implements SymbolCoder {
+
+    static final int DENSE_MIN = 1024;
+    static final int DENSE_RATIO = 8;
+    static final int BITSET_MAX = 1 << 24;
+
+    final int[] symbols;
+    final long[] codes;
+    final int[] lengths;
+
+    /**
+     * Code words and lengths by slot. A slot is the symbol itself for dense tables, or the
+     * symbol's position in {@link #keys} for sparse ones. A length of 0 marks an empty slot.
+     */
+    private final long[] codeBySlot;
+    private final byte[] lengthBySlot;
+    /**
+     * The position in {@link #symbols} of the symbol in each slot.
+     */
+    private final int[] indexBySlot;
+    /**
+     * The symbol in each slot of a sparse table, or null if the table is dense.
+     */
+    private final int[] keys;
+    private final int mask;
+    private final int shift;
+    /**
+     * One bit per symbol up to the largest one, or null if the table is dense or the alphabet
+     * spans too many symbols for a bitset.
+     */
+    private final long[] members;
+    private volatile DecodeTable decoder;
+
+    /**
+     * Constructs a table from parallel arrays of symbols and their code words.
+     *
+     * @param symbols the symbols, non-negative and distinct
+     * @param codes   the right-aligned code word of each symbol
+     * @param lengths the length in bits of each code word, between 1 and 64
+     * @throws IllegalArgumentException if the arrays differ in length, a symbol is negative or
+     *                                  repeated, or a length is out of range
+     */
+    CodeTable(int[] symbols, long[] codes, int[] lengths) {
+        if (symbols.length != codes.length || symbols.length != lengths.length) {
+            throw new IllegalArgumentException("mismatched arrays");
+        }
+        int maxSymbol = -1;
+        for (int i = 0; i < symbols.length; i++) {
+            if (symbols[i] < 0) {
+                throw new IllegalArgumentException("negative symbol");
+            }
+            if (lengths[i] < 1 || lengths[i] > 64) {
+                throw new IllegalArgumentException("invalid code length");
+            }
+            maxSymbol = Math.max(maxSymbol, symbols[i]);
+        }
+        this.symbols = symbols;
+        this.codes = codes;
+        this.lengths = lengths;
+        if (maxSymbol < Math.max(DENSE_MIN, DENSE_RATIO * symbols.length)) {
+            this.keys = null;
+            this.mask = 0;
+            this.shift = 0;
+            this.members = null;
+            this.codeBySlot = new long[maxSymbol + 1];
+            this.lengthBySlot = new byte[maxSymbol + 1];
+            this.indexBySlot = new int[maxSymbol + 1];
+        } else {
+            int capacity = Integer.highestOneBit(symbols.length * 2 - 1) << 1;
+            this.keys = new int[capacity];
+            this.mask = capacity - 1;
+            this.shift = Integer.numberOfLeadingZeros(capacity) + 1;
+            this.members = maxSymbol < BITSET_MAX ? new long[(maxSymbol >>> 6) + 1] : null;
+            this.codeBySlot = new long[capacity];
+            this.lengthBySlot = new byte[capacity];
+            this.indexBySlot = new int[capacity];
+        }
+        for (int i = 0; i < symbols.length; i++) {
+            int slot = this.keys == null ? symbols[i] : probe(symbols[i]);
+            if (this.lengthBySlot[slot] != 0) {
+                throw new IllegalArgumentException("duplicate symbol");
+            }
+            if (this.keys != null) {
+                this.keys[slot] = symbols[i];
+            }
+            if (this.members != null) {
+                this.members[symbols[i] >>> 6] |= 1L << symbols[i];
+            }
+            this.codeBySlot[slot] = codes[i];
+            this.lengthBySlot[slot] = (byte) lengths[i];
+            this.indexBySlot[slot] = i;
+        }
+    }
+
+    /**
+     * Finds the slot of a symbol in a sparse table, or the empty slot where it would go.
+     */
+    private int probe(int symbol) {
+        int slot = (symbol * 0x9E3779B9) >>> this.shift;
+        while (this.lengthBySlot[slot] != 0 && this.keys[slot] != symbol) {
+            slot = (slot + 1) & this.mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Runtime: O(1) for dense tables, expected O(1) for sparse ones
+     *
+     * @param symbol the symbol to look up
+     * @return the slot holding the symbol, or -1 if the symbol is not in the table
+     */
+    private int slot(int symbol) {
+        if (this.keys == null) {
+            if (symbol < 0 || symbol >= this.lengthBySlot.length
+                    || this.lengthBySlot[symbol] == 0) {
+                return -1;
+            }
+            return symbol;
+        }
+        if (symbol < 0 || this.members != null && (symbol >>> 6 >= this.members.length
+                || (this.members[symbol >>> 6] & (1L << symbol)) == 0)) {
+            return -1;
+        }
+        int slot = probe(symbol);
+        return this.lengthBySlot[slot] == 0 ? -1 : slot;
+    }
+
+    /**
+     * Builds a table from a map of characters to their code words as Strings of ones and
+     * zeroes.
+     *
+     * @param map the code words of each character
+     * @return the equivalent table
+     * @throws IllegalArgumentException if a code word is longer than 64 bits
+     */
+    static CodeTable fromBitStrings(Map<Character, String> map) {
+        int[] symbols = new int[map.size()];
+        long[] codes = new long[map.size()];
+        int[] lengths = new int[map.size()];
+        int i = 0;
+        for (Map.Entry<Character, String> e : map.entrySet()) {
+            if (e.getValue().length() > 64) {
+                throw new IllegalArgumentException("code too long");
+            }
+            symbols[i] = e.getKey();
+            codes[i] = Long.parseUnsignedLong(e.getValue(), 2);
+            lengths[i] = e.getValue().length();
+            i++;
+        }
+        return new CodeTable(symbols, codes, lengths);
+    }
+
+    /**
+     * Builds a canonical code from code lengths alone. Code words are handed out in order of
+     * increasing length, ties broken by increasing symbol, each one the previous code word plus
+     * one, shifted left to the new length. Two tables built from the same lengths are identical,
+     * so only the lengths need to be shared between an encoder and a decoder.
+     *
+     * @param symbols the symbols, non-negative and distinct
+     * @param lengths the code length of each symbol, between 1 and 64
+     * @return the canonical table
+     * @throws IllegalArgumentException if the lengths cannot form a prefix code
+     */
+    static CodeTable canonical(int[] symbols, int[] lengths) {
+        if (symbols.length != lengths.length) {
+            throw new IllegalArgumentException("mismatched arrays");
+        }
+        long[] order = new long[symbols.length];
+        for (int i = 0; i < symbols.length; i++) {
+            if (lengths[i] < 1 || lengths[i] > 64 || symbols[i] < 0) {
+                throw new IllegalArgumentException("invalid code length");
+            }
+            order[i] = ((long) lengths[i] << 32) | symbols[i];
+        }
+        Arrays.sort(order);
+        int[] sortedSymbols = new int[order.length];
+        long[] codes = new long[order.length];
+        int[] sortedLengths = new int[order.length];
+        long code = 0;
+        int previous = order.length == 0 ? 0 : (int) (order[0] >>> 32);
+        for (int i = 0; i < order.length; i++) {
+            int length = (int) (order[i] >>> 32);
+            if (Long.numberOfLeadingZeros(code) < 64 - previous
+                    || previous == 64 && i > 0 && code == 0) {
+                throw new IllegalArgumentException("lengths do not form a prefix code");
+            }
+            code <<= length - previous;
+            sortedSymbols[i] = (int) order[i];
+            codes[i] = code;
+            sortedLengths[i] = length;
+            code++;
+            previous = length;
+        }
+        return new CodeTable(sortedSymbols, codes, sortedLengths);
+    }
+
+    /**
+     * @return a canonical table with the same code lengths as this one
+     */
+    public CodeTable canonicalize() {
+        return canonical(this.symbols, this.lengths);
+    }
+
+    /**
+     * Serializes the code lengths of this table. Together with {@link #canonical(int[], int[])}
+     * this is enough to rebuild the canonical form of the table without any frequencies.
+     * <p>
+     * The header is the number of symbols as a varint, then for each symbol in increasing order
+     * the gap since the previous symbol (minus one) as a varint followed by one byte of code
+     * length. A typical text alphabet fits in about two bytes per symbol.
+     *
+     * @return the encoded code lengths
+     */
+    public byte[] toHeader() {
+        long[] order = new long[this.symbols.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = ((long) this.symbols[i] << 8) | this.lengths[i];
+        }
+        Arrays.sort(order);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(2 * order.length + 4);
+        writeVarInt(out, order.length);
+        int previous = -1;
+        for (long o : order) {
+            int symbol = (int) (o >>> 8);
+            writeVarInt(out, symbol - previous - 1);
+            out.write((int) o & 0xFF);
+            previous = symbol;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Rebuilds a canonical table from a header written by {@link #toHeader()}.
+     *
+     * @param header the encoded code lengths
+     * @return the canonical table
+     * @throws IllegalArgumentException if header is null, truncated, or does not describe a
+     *                                  prefix code
+     */
+    public static CodeTable fromHeader(byte[] header) {
+        if (header == null) {
+            throw new IllegalArgumentException("null header");
+        }
+        int[] position = {0};
+        int count = readVarInt(header, position);
+        if (count > header.length) {
+            throw new IllegalArgumentException("corrupt header");
+        }
+        int[] symbols = new int[count];
+        int[] lengths = new int[count];
+        int previous = -1;
+        for (int i = 0; i < count; i++) {
+            previous += readVarInt(header, position) + 1;
+            if (previous < 0 || position[0] >= header.length) {
+                throw new IllegalArgumentException("corrupt header");
+            }
+            symbols[i] = previous;
+            lengths[i] = header[position[0]++] & 0xFF;
+        }
+        return canonical(symbols, lengths);
+    }
+
+    static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarLong(byte[] in, int[] position) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position[0] >= in.length) {
+                throw new IllegalArgumentException("corrupt header");
+            }
+            int b = in[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("corrupt header");
+    }
+
+    static int readVarInt(byte[] in, int[] position) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (position[0] >= in.length) {
+                throw new IllegalArgumentException("corrupt header");
+            }
+            int b = in[position[0]++];
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("corrupt header");
+    }
+
+    /**
+     * @param index the position of a symbol in {@link #symbols}
+     * @return the code word of that symbol as a String of ones and zeroes
+     */
+    String bitString(int index) {
+        char[] chars = new char[this.lengths[index]];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('0' + ((this.codes[index] >>> (chars.length - 1 - i)) & 1));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Runtime: O(1)
+     *
+     * @return the number of symbols in the table
+     */
+    public int size() {
+        return this.symbols.length;
+    }
+
+    /**
+     * @param symbol the symbol to look up
+     * @return true if the symbol is in the table
+     */
+    public boolean contains(int symbol) {
+        return slot(symbol) >= 0;
+    }
+
+    /**
+     * @param symbol the symbol to look up
+     * @return the length of the symbol's code word, or 0 if the symbol is not in the table
+     */
+    public int length(int symbol) {
+        int slot = slot(symbol);
+        return slot < 0 ? 0 : this.lengthBySlot[slot];
+    }
+
+    /**
+     * @param symbol the symbol to look up
+     * @return the right-aligned code word of the symbol, or 0 if the symbol is not in the table
+     */
+    public long code(int symbol) {
+        int slot = slot(symbol);
+        return slot < 0 ? 0 : this.codeBySlot[slot];
+    }
+
+    /**
+     * Writes the code word of a single symbol.
+     *
+     * @param symbol the symbol to encode
+     * @param out    the destination
+     * @throws IllegalArgumentException if the symbol is not in the table
+     */
+    public void encode(int symbol, BitWriter out) {
+        write(symbol, out);
+    }
+
+    /**
+     * Writes the code word of a single symbol, like {@link #encode(int, BitWriter)}.
+     *
+     * @return the position of the symbol in {@link #symbols}
+     */
+    int write(int symbol, BitWriter out) {
+        int slot = slot(symbol);
+        if (slot < 0) {
+            throw new IllegalArgumentException("not compressible");
+        }
+        out.write(this.codeBySlot[slot], this.lengthBySlot[slot]);
+        return this.indexBySlot[slot];
+    }
+
+    /**
+     * Writes the code words of a run of characters, like a {@link #write(int, BitWriter)} per
+     * character, but gathers consecutive code words in a local 64-bit word so that the writer is
+     * called once per word rather than once per character.
+     *
+     * @param input  the characters to encode
+     * @param from   the index of the first character to encode
+     * @param to     the index one past the last character to encode
+     * @param counts incremented at the position in {@link #symbols} of every character written
+     * @param out    the writer to append to
+     * @throws IllegalArgumentException if a character is not in the table
+     */
+    void writeAll(CharSequence input, int from, int to, int[] counts, BitWriter out) {
+        long word = 0;
+        int bits = 0;
+        for (int i = from; i < to; i++) {
+            int slot = slot(input.charAt(i));
+            if (slot < 0) {
+                out.write(word, bits);
+                throw new IllegalArgumentException("not compressible");
+            }
+            int length = this.lengthBySlot[slot];
+            if (bits + length > 64) {
+                out.write(word, bits);
+                word = 0;
+                bits = 0;
+            }
+            // a 64-bit shift is a no-op in Java, but then word is 0 anyway
+            word = word << length | this.codeBySlot[slot];
+            bits += length;
+            counts[this.indexBySlot[slot]]++;
+        }
+        out.write(word, bits);
+    }
+
+    /**
+     * Decodes a single symbol.
+     * <p>
+     * Runtime: O(1) for code words of up to {@link DecodeTable#LOOKUP_BITS} bits
+     *
+     * @param in the bits to decode
+     * @return the next decoded symbol
+     * @throws IllegalArgumentException if the upcoming bits are not a code word
+     */
+    public int decode(BitReader in) {
+        return decoder().read(in);
+    }
+
+    DecodeTable decoder() {
+        DecodeTable d = this.decoder;
+        if (d == null) {
+            d = new DecodeTable(this);
+            this.decoder = d;
+        }
+        return d;
+    }
+}
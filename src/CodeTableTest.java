@@ -0,0 +1,100 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class CodeTableTest {
+
+    private static CodeTable table(int... symbols) {
+        int[] lengths = new int[symbols.length];
+        for (int i = 0; i < symbols.length; i++) {
+            lengths[i] = Math.min(i + 1, symbols.length - 1);
+        }
+        return CodeTable.canonical(symbols, lengths);
+    }
+
+    @Test
+    public void denseTest() {
+        CodeTable t = table('a', 'b', 'c');
+        assertTrue(t.contains('a'));
+        assertFalse(t.contains('d'));
+        assertFalse(t.contains(-1));
+        assertEquals(1, t.length('a'));
+        assertEquals(0, t.code('a'));
+        assertEquals(2, t.length('c'));
+        assertEquals(3, t.code('c'));
+        assertEquals(0, t.length(100000));
+    }
+
+    @Test
+    public void sparseTest() {
+        CodeTable t = table(5, 70000, 1 << 20, Integer.MAX_VALUE);
+        assertTrue(t.contains(70000));
+        assertTrue(t.contains(Integer.MAX_VALUE));
+        assertFalse(t.contains(70001));
+        assertFalse(t.contains(6));
+        assertEquals(3, t.length(1 << 20));
+        assertEquals(7, t.code(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void sparseBitsetTest() {
+        int[] symbols = new int[60];
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = i * 5000;
+        }
+        CodeTable t = table(symbols);
+        for (int i = 0; i < symbols.length; i++) {
+            assertTrue(t.contains(i * 5000));
+            assertFalse(t.contains(i * 5000 + 1));
+        }
+        assertFalse(t.contains(1 << 23));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void notCompressibleTest() {
+        table(5, 70000, 1 << 20).encode(6, new BitWriter());
+    }
+
+    @Test
+    public void writeAllTest() {
+        int[] symbols = new int[65];
+        StringBuilder s = new StringBuilder();
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = 'A' + i;
+            s.append((char) ('A' + i)).append('A').append((char) ('A' + (i * 7) % 65));
+        }
+        CodeTable t = table(symbols);
+        BitWriter single = new BitWriter();
+        int[] expected = new int[t.size()];
+        for (int i = 1; i < s.length(); i++) {
+            expected[t.write(s.charAt(i), single)]++;
+        }
+        BitWriter batched = new BitWriter();
+        int[] counts = new int[t.size()];
+        t.writeAll(s, 1, s.length(), counts, batched);
+        assertEquals(single.bitLength(), batched.bitLength());
+        assertArrayEquals(single.toPackedBits().bytes(), batched.toPackedBits().bytes());
+        assertArrayEquals(expected, counts);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void writeAllNotCompressibleTest() {
+        table('a', 'b', 'c').writeAll("abcd", 0, 4, new int[3], new BitWriter());
+    }
+
+    @Test
+    public void headerTest() {
+        CodeTable t = table('a', 'b', 'c', 300);
+        CodeTable copy = CodeTable.fromHeader(t.toHeader());
+        assertEquals(t.size(), copy.size());
+        for (int symbol : new int[] {'a', 'b', 'c', 300}) {
+            assertEquals(t.code(symbol), copy.code(symbol));
+            assertEquals(t.length(symbol), copy.length(symbol));
+        }
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void notPrefixCodeTest() {
+        CodeTable.canonical(new int[] {1, 2, 3}, new int[] {1, 1, 1});
+    }
+}
@@ -0,0 +1,229 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, thread-safe cache of canonical {@link Huffman} codecs keyed by the fingerprint of
+ * their frequency map. Building a codec sorts the alphabet, computes code lengths and fills a
+ * {@link CodeTable}; a hit skips all of that and only allocates a small {@code Huffman} that
+ * shares the cached code table, code strings and frequencies, none of which is ever modified.
+ * Every caller still gets its own instance, so compression statistics are never shared.
+ * <p>
+ * The fingerprint is the frequency map itself, flattened into a sorted primitive array with a
+ * 64-bit hash, so equal maps always hit and different maps never collide. Entries are evicted in
+ * least recently used order once the cache is full. Lookups hold a lock only to touch the LRU
+ * order; codecs are built outside it, so a miss never blocks other threads.
+ */
+public final class CodecCache {
+
+    static final int DEFAULT_CAPACITY = 256;
+
+    private static final CodecCache SHARED = new CodecCache(DEFAULT_CAPACITY);
+
+    private final int capacity;
+    private final LinkedHashMap<Fingerprint, Huffman> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs an empty cache.
+     *
+     * @param capacity the maximum number of codecs to keep
+     * @throws IllegalArgumentException if capacity is not positive
+     */
+    public CodecCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("non positive capacity");
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Fingerprint, Huffman>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Fingerprint, Huffman> eldest) {
+                if (size() > CodecCache.this.capacity) {
+                    CodecCache.this.evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return the process-wide cache, holding up to {@link #DEFAULT_CAPACITY} codecs
+     */
+    public static CodecCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns a canonical codec for a frequency map, building it on a miss. The map is copied,
+     * so changing it afterwards does not affect the cache.
+     * <p>
+     * Runtime: O(n log n) for an alphabet of n characters, to fingerprint the map
+     *
+     * @param alphabet a frequency map for characters in the alphabet
+     * @return a canonical instance for the alphabet, with its own compression statistics
+     * @throws IllegalArgumentException if the alphabet is null, empty, has fewer than 2 characters,
+     *                                  or has any non-positive frequencies
+     */
+    public Huffman get(Map<Character, Integer> alphabet) {
+        Huffman.checkAlphabet(alphabet);
+        long[] pairs = new long[alphabet.size()];
+        int i = 0;
+        for (Map.Entry<Character, Integer> e : alphabet.entrySet()) {
+            pairs[i++] = ((long) e.getKey() << 32) | e.getValue();
+        }
+        Arrays.sort(pairs);
+        Fingerprint key = new Fingerprint(pairs);
+        Huffman model = lookup(key);
+        if (model == null) {
+            model = Huffman.fromFrequencies(Collections.unmodifiableMap(
+                    new LinkedHashMap<Character, Integer>(alphabet)));
+            model = insert(key, model);
+        }
+        return model.share();
+    }
+
+    /**
+     * Returns a canonical codec for the character frequencies of a seed, building it on a miss.
+     * Seeds with the same frequencies share a codec, whatever order their characters are in.
+     * <p>
+     * Runtime: O(n) for a seed of n characters, to count them
+     *
+     * @param seed the String from which to deduce the alphabet and frequencies
+     * @return a canonical instance for the seed, with its own compression statistics
+     * @throws IllegalArgumentException if the seed is null, empty, or has only 1 distinct
+     *                                  character
+     */
+    public Huffman get(String seed) {
+        if (seed == null) {
+            throw new IllegalArgumentException("null seed");
+        }
+        if (seed.isEmpty()) {
+            throw new IllegalArgumentException("empty seed");
+        }
+        int[] counts = Histograms.count(seed);
+        int distinct = 0;
+        for (int count : counts) {
+            distinct += count > 0 ? 1 : 0;
+        }
+        if (distinct < 2) {
+            throw new IllegalArgumentException("alphabet fewer than 2 characters");
+        }
+        long[] pairs = new long[distinct];
+        int i = 0;
+        for (int c = 0; c < counts.length; c++) {
+            if (counts[c] > 0) {
+                pairs[i++] = ((long) c << 32) | counts[c];
+            }
+        }
+        Fingerprint key = new Fingerprint(pairs);
+        Huffman model = lookup(key);
+        if (model == null) {
+            model = Huffman.fromFrequencies(
+                    Collections.unmodifiableMap(Histograms.toMap(counts)));
+            model = insert(key, model);
+        }
+        return model.share();
+    }
+
+    private Huffman lookup(Fingerprint key) {
+        Huffman model;
+        synchronized (this.entries) {
+            model = this.entries.get(key);
+        }
+        if (model == null) {
+            this.misses.increment();
+        } else {
+            this.hits.increment();
+        }
+        return model;
+    }
+
+    /**
+     * Caches a freshly built codec, unless another thread cached one for the same key first.
+     *
+     * @return the codec now in the cache
+     */
+    private Huffman insert(Fingerprint key, Huffman model) {
+        synchronized (this.entries) {
+            Huffman existing = this.entries.putIfAbsent(key, model);
+            return existing == null ? model : existing;
+        }
+    }
+
+    /**
+     * @return the number of lookups answered from the cache
+     */
+    public long hits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * @return the number of lookups that had to build a codec
+     */
+    public long misses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * @return the number of codecs dropped to stay within capacity
+     */
+    public long evictions() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * @return the number of codecs currently cached
+     */
+    public int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    /**
+     * Drops every cached codec. The counters are kept.
+     */
+    public void clear() {
+        synchronized (this.entries) {
+            this.entries.clear();
+        }
+    }
+
+    /**
+     * A frequency map flattened into (character, frequency) pairs sorted by character.
+     */
+    static final class Fingerprint {
+
+        final long[] pairs;
+        final long hash;
+
+        Fingerprint(long[] pairs) {
+            this.pairs = pairs;
+            long h = 0x9E3779B97F4A7C15L;
+            for (long pair : pairs) {
+                h = (h ^ pair) * 0xBF58476D1CE4E5B9L;
+                h ^= h >>> 31;
+            }
+            this.hash = h;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Fingerprint)) {
+                return false;
+            }
+            Fingerprint other = (Fingerprint) o;
+            return this.hash == other.hash && Arrays.equals(this.pairs, other.pairs);
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (this.hash ^ (this.hash >>> 32));
+        }
+    }
+}
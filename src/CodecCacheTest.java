@@ -0,0 +1,123 @@
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CodecCacheTest {
+
+    private CodecCache cache;
+    private HashMap<Character, Integer> asd;
+
+    @Before
+    public void setUp() {
+        cache = new CodecCache(2);
+        asd = new HashMap<Character, Integer>();
+        asd.put('a', 3);
+        asd.put('s', 2);
+        asd.put('d', 1);
+    }
+
+    @Test
+    public void hitTest() {
+        Huffman first = cache.get(asd);
+        Huffman second = cache.get(new HashMap<Character, Integer>(asd));
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.hits());
+        assertNotSame(first, second);
+        assertSame(first.codeTable, second.codeTable);
+        assertEquals(Huffman.fromFrequencies(asd).map, second.map);
+        assertEquals("asda", second.decompress(first.compress("asda")));
+    }
+
+    @Test
+    public void seedTest() {
+        Huffman fromSeed = cache.get("dasasa");
+        Huffman fromMap = cache.get(asd);
+        assertEquals(1, cache.hits());
+        assertSame(fromSeed.codeTable, fromMap.codeTable);
+        assertEquals(1.5, fromMap.expectedEncodingLength(), 0.01);
+    }
+
+    @Test
+    public void copiesAlphabetTest() {
+        Huffman first = cache.get(asd);
+        asd.put('d', 5);
+        Huffman second = cache.get(asd);
+        assertEquals(2, cache.misses());
+        assertNotSame(first.codeTable, second.codeTable);
+        assertEquals(1, (int) first.freqMap.get('d'));
+    }
+
+    @Test
+    public void evictionTest() {
+        cache.get(asd);
+        cache.get("ab");
+        cache.get(asd);
+        cache.get("abc");
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictions());
+        cache.get(asd);
+        assertEquals(2, cache.hits());
+        cache.get("ab");
+        assertEquals(4, cache.misses());
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void separateStatisticsTest() {
+        Huffman first = cache.get(asd);
+        Huffman second = cache.get(asd);
+        first.compress("aaaa");
+        assertEquals(4 / 64.0, first.compressionRatio(), 0.001);
+        try {
+            second.compressionRatio();
+            fail();
+        } catch (IllegalStateException e) {
+            // second has not compressed anything
+        }
+    }
+
+    @Test
+    public void concurrentTest() throws InterruptedException {
+        List<Thread> threads = new ArrayList<Thread>();
+        Huffman[][] results = new Huffman[4][100];
+        for (int t = 0; t < 4; t++) {
+            int id = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 100; i++) {
+                    results[id][i] = cache.get(i % 2 == 0 ? "asaasd" : "xyzzy");
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(400, cache.hits() + cache.misses());
+        assertSame(results[0][98].codeTable, results[3][98].codeTable);
+        assertSame(results[1][99].codeTable, results[2][99].codeTable);
+    }
+
+    @Test
+    public void sharedTest() {
+        assertSame(CodecCache.shared(), CodecCache.shared());
+        assertSame(Huffman.cached(asd).codeTable, Huffman.cached(asd).codeTable);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void nonPositiveCapacityTest() {
+        new CodecCache(0);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void singleCharacterSeedTest() {
+        cache.get("aaaa");
+    }
+}
@@ -0,0 +1,208 @@
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Usage statistics of a single {@link Huffman} codec: call, character and bit counts for each
+ * direction, latency histograms, and how often each symbol has been compressed. Every counter is
+ * a {@link LongAdder} or an atomic array, so recording never locks and concurrent callers do not
+ * contend on a shared field. {@link #snapshot()} copies the counters into an immutable {@link
+ * Snapshot} for export; counters updated while a snapshot is taken may or may not be included.
+ * <p>
+ * Latencies are kept in 64 power-of-two buckets of nanoseconds, so a percentile is accurate to
+ * within a factor of two. Symbol counts are gathered per call into a local histogram and
+ * published once the call completes, except for calls shorter than the alphabet, which publish
+ * each symbol directly.
+ */
+public final class CodecMetrics {
+
+    static final int BUCKETS = 64;
+
+    final LongAdder compressCalls = new LongAdder();
+    final LongAdder compressedChars = new LongAdder();
+    final LongAdder compressedBits = new LongAdder();
+    final LongAdder decompressCalls = new LongAdder();
+    final LongAdder decompressedChars = new LongAdder();
+    final LongAdder decompressedBits = new LongAdder();
+    private final AtomicLongArray compressLatency = new AtomicLongArray(BUCKETS);
+    private final AtomicLongArray decompressLatency = new AtomicLongArray(BUCKETS);
+    private final int[] symbols;
+    private final AtomicLongArray symbolCounts;
+
+    /**
+     * @param symbols the symbols of the codec's code table, in table order
+     */
+    CodecMetrics(int[] symbols) {
+        this.symbols = symbols;
+        this.symbolCounts = new AtomicLongArray(symbols.length);
+    }
+
+    void recordCompress(int chars, long bits, long nanos) {
+        this.compressCalls.increment();
+        this.compressedChars.add(chars);
+        this.compressedBits.add(bits);
+        this.compressLatency.incrementAndGet(bucket(nanos));
+    }
+
+    void recordDecompress(int chars, long bits, long nanos) {
+        this.decompressCalls.increment();
+        this.decompressedChars.add(chars);
+        this.decompressedBits.add(bits);
+        this.decompressLatency.incrementAndGet(bucket(nanos));
+    }
+
+    /**
+     * @param index the position of the symbol in the code table
+     */
+    void countSymbol(int index) {
+        this.symbolCounts.incrementAndGet(index);
+    }
+
+    /**
+     * Publishes the first {@code length} counts and resets them to 0, so the array can be reused.
+     *
+     * @param counts occurrences of each symbol, by position in the code table
+     * @param length the number of symbols in the code table
+     */
+    void countSymbols(int[] counts, int length) {
+        for (int i = 0; i < length; i++) {
+            if (counts[i] != 0) {
+                this.symbolCounts.addAndGet(i, counts[i]);
+                counts[i] = 0;
+            }
+        }
+    }
+
+    private static int bucket(long nanos) {
+        return nanos <= 1 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    /**
+     * Runtime: O(n) for an alphabet of n symbols
+     *
+     * @return a copy of the counters as they are now
+     */
+    public Snapshot snapshot() {
+        Map<Integer, Long> counts = new LinkedHashMap<Integer, Long>(this.symbols.length * 2);
+        for (int i = 0; i < this.symbols.length; i++) {
+            counts.put(this.symbols[i], this.symbolCounts.get(i));
+        }
+        return new Snapshot(this, counts);
+    }
+
+    /**
+     * An immutable copy of the counters of a {@link CodecMetrics}.
+     */
+    public static final class Snapshot {
+
+        private final long compressCalls;
+        private final long compressedChars;
+        private final long compressedBits;
+        private final long decompressCalls;
+        private final long decompressedChars;
+        private final long decompressedBits;
+        private final long[] compressLatency;
+        private final long[] decompressLatency;
+        private final Map<Integer, Long> symbolCounts;
+
+        private Snapshot(CodecMetrics metrics, Map<Integer, Long> symbolCounts) {
+            this.compressCalls = metrics.compressCalls.sum();
+            this.compressedChars = metrics.compressedChars.sum();
+            this.compressedBits = metrics.compressedBits.sum();
+            this.decompressCalls = metrics.decompressCalls.sum();
+            this.decompressedChars = metrics.decompressedChars.sum();
+            this.decompressedBits = metrics.decompressedBits.sum();
+            this.compressLatency = copy(metrics.compressLatency);
+            this.decompressLatency = copy(metrics.decompressLatency);
+            this.symbolCounts = Collections.unmodifiableMap(symbolCounts);
+        }
+
+        private static long[] copy(AtomicLongArray buckets) {
+            long[] copy = new long[BUCKETS];
+            for (int b = 0; b < BUCKETS; b++) {
+                copy[b] = buckets.get(b);
+            }
+            return copy;
+        }
+
+        public long compressCalls() {
+            return this.compressCalls;
+        }
+
+        public long compressedChars() {
+            return this.compressedChars;
+        }
+
+        public long compressedBits() {
+            return this.compressedBits;
+        }
+
+        public long decompressCalls() {
+            return this.decompressCalls;
+        }
+
+        public long decompressedChars() {
+            return this.decompressedChars;
+        }
+
+        public long decompressedBits() {
+            return this.decompressedBits;
+        }
+
+        /**
+         * @return compressed bits over the 16 bits of each compressed char, or NaN if nothing
+         *         has been compressed
+         */
+        public double compressionRatio() {
+            return (double) this.compressedBits / (16.0 * this.compressedChars);
+        }
+
+        /**
+         * @param quantile the fraction of calls, between 0 and 1
+         * @return an upper bound, within a factor of two, on the compression latency in
+         *         nanoseconds of that fraction of calls, or 0 if there have been no calls
+         * @throws IllegalArgumentException if quantile is out of range
+         */
+        public long compressLatency(double quantile) {
+            return percentile(this.compressLatency, quantile);
+        }
+
+        /**
+         * @param quantile the fraction of calls, between 0 and 1
+         * @return an upper bound, within a factor of two, on the decompression latency in
+         *         nanoseconds of that fraction of calls, or 0 if there have been no calls
+         * @throws IllegalArgumentException if quantile is out of range
+         */
+        public long decompressLatency(double quantile) {
+            return percentile(this.decompressLatency, quantile);
+        }
+
+        private static long percentile(long[] buckets, double quantile) {
+            if (!(quantile >= 0 && quantile <= 1)) {
+                throw new IllegalArgumentException("quantile out of range");
+            }
+            long total = 0;
+            for (long count : buckets) {
+                total += count;
+            }
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                seen += buckets[b];
+                if (seen >= rank && seen > 0) {
+                    return b == 63 ? Long.MAX_VALUE : 2L << b;
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * @return how often each symbol of the code table has been compressed, in table order
+         */
+        public Map<Integer, Long> symbolCounts() {
+            return this.symbolCounts;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe min-heap for many concurrent producers and consumers. Elements are kept in a
+ * lock-free skip list ordered by key, ties broken by insertion order, and a concurrent map from
+ * each value to its current node enforces the one-entry-per-value rule.
+ * <p>
+ * The heap as a whole is not lock-free. Reads never block. Writes update the map through {@link
+ * ConcurrentHashMap}, which locks a single bin at a time, so writes use fine-grained locking and
+ * contend only on values that hash to the same bin. The map and the skip list are not updated
+ * together atomically, so another thread can briefly see a node in one but not yet in the other;
+ * the rules below keep that from losing or duplicating values.
+ * <p>
+ * {@link #decreaseKey} swaps a fresh node for the value in the map and then replaces the old node
+ * in the skip list. A consumer that polls a node which is no longer the value's current node
+ * discards it, so every value is extracted exactly once, with its most recent key. Concurrent
+ * decrease-keys of the same value are best-effort: each one succeeds only if the key it lowers
+ * is still current, and is retried otherwise.
+ * <p>
+ * {@link #size()}, {@link #peek()} and {@link #values()} are weakly consistent snapshots when
+ * other threads are modifying the heap.
+ *
+ * @param <Key> {@inheritDoc}
+ * @param <V>   {@inheritDoc}
+ */
+public class ConcurrentMinHeap<Key extends Comparable<Key>, V> implements BinaryMinHeap<Key, V> {
+
+    private static final Object NULL = new Object();
+
+    static final class Node<Key extends Comparable<Key>, V> implements Comparable<Node<Key, V>> {
+        final Key key;
+        final V value;
+        final long sequence;
+
+        Node(Key key, V value, long sequence) {
+            this.key = key;
+            this.value = value;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Node<Key, V> o) {
+            int c = this.key.compareTo(o.key);
+            return c != 0 ? c : Long.compare(this.sequence, o.sequence);
+        }
+    }
+
+    final ConcurrentSkipListSet<Node<Key, V>> nodes;
+    final ConcurrentHashMap<Object, Node<Key, V>> current;
+    private final AtomicLong sequence;
+
+    public ConcurrentMinHeap() {
+        this.nodes = new ConcurrentSkipListSet<Node<Key, V>>();
+        this.current = new ConcurrentHashMap<Object, Node<Key, V>>();
+        this.sequence = new AtomicLong();
+    }
+
+    private static Object mask(Object value) {
+        return value == null ? NULL : value;
+    }
+
+    @Override
+    public int size() {
+        return this.current.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.current.isEmpty();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsValue(V value) {
+        return this.current.containsKey(mask(value));
+    }
+
+    /**
+     * Runtime: expected O(log n)
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    public void add(Key key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("null key");
+        }
+        Node<Key, V> node = new Node<Key, V>(key, value, this.sequence.getAndIncrement());
+        if (this.current.putIfAbsent(mask(value), node) != null) {
+            throw new IllegalArgumentException("value already in heap");
+        }
+        this.nodes.add(node);
+    }
+
+    /**
+     * Runtime: expected O(log n)
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    public void decreaseKey(V value, Key newKey) {
+        if (newKey == null) {
+            if (!containsValue(value)) {
+                throw new NoSuchElementException("value does not exist");
+            }
+            throw new IllegalArgumentException("null key");
+        }
+        Object masked = mask(value);
+        while (true) {
+            Node<Key, V> old = this.current.get(masked);
+            if (old == null) {
+                throw new NoSuchElementException("value does not exist");
+            }
+            if (newKey.compareTo(old.key) > 0) {
+                throw new IllegalArgumentException("larger new key");
+            }
+            Node<Key, V> node = new Node<Key, V>(newKey, value, this.sequence.getAndIncrement());
+            if (this.current.replace(masked, old, node)) {
+                this.nodes.add(node);
+                this.nodes.remove(old);
+                return;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Entry<Key, V> peek() {
+        for (Node<Key, V> node : this.nodes) {
+            if (this.current.get(mask(node.value)) == node) {
+                return new Entry<Key, V>(node.key, node.value);
+            }
+        }
+        throw new NoSuchElementException("empty heap");
+    }
+
+    /**
+     * Runtime: expected O(log n)
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    public Entry<Key, V> extractMin() {
+        while (true) {
+            Node<Key, V> node = this.nodes.pollFirst();
+            if (node == null) {
+                throw new NoSuchElementException("empty heap");
+            }
+            if (this.current.remove(mask(node.value), node)) {
+                return new Entry<Key, V>(node.key, node.value);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<V> values() {
+        Set<V> set = new HashSet<V>();
+        for (Object value : this.current.keySet()) {
+            set.add(value == NULL ? null : (V) value);
+        }
+        return set;
+    }
+}
@@ -0,0 +1,101 @@
+import static org.junit.Assert.*;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConcurrentMinHeapTest {
+
+    ConcurrentMinHeap<Integer, Integer> empty;
+
+    @Before
+    public void setUp() {
+        empty = new ConcurrentMinHeap<>();
+    }
+
+    @Test
+    public void addTest() {
+        empty.add(30, 0);
+        empty.add(5, 1);
+        empty.add(2, null);
+        assertEquals(3, empty.size());
+        assertTrue(empty.containsValue(null));
+        assertEquals(Integer.valueOf(2), empty.peek().key);
+        assertNull(empty.extractMin().value);
+        assertTrue(empty.values().contains(0));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void addDupeValueTest() {
+        empty.add(1, 5);
+        empty.add(2, 5);
+    }
+
+    @Test
+    public void decreaseKeyTest() {
+        empty.add(30, 0);
+        empty.add(5, 1);
+        empty.decreaseKey(0, 1);
+        assertEquals(2, empty.size());
+        assertEquals(Integer.valueOf(0), empty.extractMin().value);
+        assertEquals(Integer.valueOf(1), empty.extractMin().value);
+        assertTrue(empty.isEmpty());
+    }
+
+    @Test (expected = NoSuchElementException.class)
+    public void invalidValueDecreaseKeyTest() {
+        empty.decreaseKey(1, 0);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void largerKeyDecreaseKeyTest() {
+        empty.add(0, 1);
+        empty.decreaseKey(1, 2);
+    }
+
+    @Test (expected = NoSuchElementException.class)
+    public void extractMinEmptyTest() {
+        empty.extractMin();
+    }
+
+    @Test
+    public void concurrentTest() throws InterruptedException {
+        int threads = 8;
+        int perThread = 5000;
+        ConcurrentHashMap<Integer, Boolean> extracted = new ConcurrentHashMap<>();
+        AtomicInteger duplicates = new AtomicInteger();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int base = t * perThread;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    empty.add(1000000 - i, base + i);
+                    if (i % 3 == 0) {
+                        try {
+                            empty.decreaseKey(base + i / 2, -i);
+                        } catch (NoSuchElementException e) {
+                            // already extracted by another thread
+                        }
+                    }
+                    if (i % 2 == 0 && extracted.put(empty.extractMin().value, true) != null) {
+                        duplicates.incrementAndGet();
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread w : workers) {
+            w.join();
+        }
+        while (!empty.isEmpty()) {
+            if (extracted.put(empty.extractMin().value, true) != null) {
+                duplicates.incrementAndGet();
+            }
+        }
+        assertEquals(0, duplicates.get());
+        assertEquals(threads * perThread, extracted.size());
+    }
+}
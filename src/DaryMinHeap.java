@@ -0,0 +1,231 @@
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A d-ary min-heap, where every node has up to {@code arity} children instead of two. A wider
+ * heap is shallower, so {@link #add} and {@link #decreaseKey} sift through fewer levels, while
+ * {@link #extractMin()} compares more children per level but reads them from one contiguous run of
+ * the array. Arity 4 usually wins for extract-heavy workloads such as Huffman merging.
+ * <p>
+ * Keys and values live in parallel arrays, value positions are tracked by a {@link ValueIndex},
+ * and sifts move a hole rather than swapping pairs.
+ *
+ * @param <Key> {@inheritDoc}
+ * @param <V>   {@inheritDoc}
+ */
+public class DaryMinHeap<Key extends Comparable<Key>, V> implements BinaryMinHeap<Key, V> {
+
+    final int arity;
+    Object[] keys;
+    Object[] values;
+    int size;
+    ValueIndex<V> index;
+
+    public DaryMinHeap() {
+        this(4);
+    }
+
+    /**
+     * @param arity the maximum number of children of each node
+     * @throws IllegalArgumentException if arity is less than 2
+     */
+    public DaryMinHeap(int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("arity less than 2");
+        }
+        this.arity = arity;
+        this.keys = new Object[16];
+        this.values = new Object[16];
+        this.index = new ValueIndex<V>(16);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsValue(V value) {
+        return this.index.get(value) >= 0;
+    }
+
+    /**
+     * Runtime: O(log_d n)
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    public void add(Key key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("null key");
+        }
+        if (this.index.get(value) >= 0) {
+            throw new IllegalArgumentException("value already in heap");
+        }
+        if (this.size == this.keys.length) {
+            this.keys = Arrays.copyOf(this.keys, this.size * 2);
+            this.values = Arrays.copyOf(this.values, this.size * 2);
+        }
+        siftUp(this.size++, key, value);
+    }
+
+    /**
+     * Appends the entries and restores the heap property bottom-up in O(n + m), unless the batch
+     * is small enough that sifting each entry up is cheaper. The arrays and the index are grown
+     * at most once.
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void addAll(Collection<? extends Entry<Key, V>> entries) {
+        Heaps.checkEntries(this, entries);
+        if (Heaps.addIndividually(this.size, entries.size())) {
+            for (Entry<Key, V> e : entries) {
+                add(e.key, e.value);
+            }
+            return;
+        }
+        int total = this.size + entries.size();
+        if (total > this.keys.length) {
+            this.keys = Arrays.copyOf(this.keys, total);
+            this.values = Arrays.copyOf(this.values, total);
+        }
+        this.index.reserve(total);
+        for (Entry<Key, V> e : entries) {
+            this.keys[this.size] = e.key;
+            this.values[this.size] = e.value;
+            this.index.put(e.value, this.size);
+            this.size++;
+        }
+        for (int i = (this.size - 2) / this.arity; i >= 0; i--) {
+            siftDown(i, key(i), (V) this.values[i]);
+        }
+    }
+
+    /**
+     * Runtime: O(log_d n)
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    public void decreaseKey(V value, Key newKey) {
+        int i = this.index.get(value);
+        if (i < 0) {
+            throw new NoSuchElementException("value does not exist");
+        }
+        if (newKey == null) {
+            throw new IllegalArgumentException("null key");
+        }
+        if (newKey.compareTo(key(i)) > 0) {
+            throw new IllegalArgumentException("larger new key");
+        }
+        siftUp(i, newKey, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Entry<Key, V> peek() {
+        if (this.size == 0) {
+            throw new NoSuchElementException("empty heap");
+        }
+        return new Entry<Key, V>(key(0), (V) this.values[0]);
+    }
+
+    /**
+     * Runtime: O(d log_d n)
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Entry<Key, V> extractMin() {
+        Entry<Key, V> min = peek();
+        this.index.remove(min.value);
+        int last = --this.size;
+        Key key = key(last);
+        V value = (V) this.values[last];
+        this.keys[last] = null;
+        this.values[last] = null;
+        if (last > 0) {
+            siftDown(0, key, value);
+        }
+        return min;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<V> values() {
+        Set<V> set = new HashSet<V>();
+        for (int i = 0; i < this.size; i++) {
+            set.add((V) this.values[i]);
+        }
+        return set;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Key key(int i) {
+        return (Key) this.keys[i];
+    }
+
+    @SuppressWarnings("unchecked")
+    void siftUp(int i, Key key, V value) {
+        while (i > 0) {
+            int parent = (i - 1) / this.arity;
+            if (key(parent).compareTo(key) <= 0) {
+                break;
+            }
+            this.keys[i] = this.keys[parent];
+            this.values[i] = this.values[parent];
+            this.index.put((V) this.values[i], i);
+            i = parent;
+        }
+        this.keys[i] = key;
+        this.values[i] = value;
+        this.index.put(value, i);
+    }
+
+    @SuppressWarnings("unchecked")
+    void siftDown(int i, Key key, V value) {
+        while (true) {
+            int first = this.arity * i + 1;
+            if (first >= this.size) {
+                break;
+            }
+            int end = Math.min(first + this.arity, this.size);
+            int smallest = first;
+            for (int c = first + 1; c < end; c++) {
+                if (key(c).compareTo(key(smallest)) < 0) {
+                    smallest = c;
+                }
+            }
+            if (key.compareTo(key(smallest)) <= 0) {
+                break;
+            }
+            this.keys[i] = this.keys[smallest];
+            this.values[i] = this.values[smallest];
+            this.index.put((V) this.values[i], i);
+            i = smallest;
+        }
+        this.keys[i] = key;
+        this.values[i] = value;
+        this.index.put(value, i);
+    }
+}
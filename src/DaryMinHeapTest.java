@@ -0,0 +1,95 @@
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class DaryMinHeapTest {
+
+    @Test (expected = IllegalArgumentException.class)
+    public void invalidArityTest() {
+        new DaryMinHeap<Integer, Integer>(1);
+    }
+
+    @Test
+    public void addTest() {
+        DaryMinHeap<Integer, Integer> heap = new DaryMinHeap<>(3);
+        heap.add(30, 0);
+        heap.add(5, 1);
+        heap.add(2, 2);
+        heap.add(1, 3);
+        heap.add(2, 4);
+
+        assertArrayEquals(new Object[] {1, 2, 5, 2, 30},
+                Arrays.copyOf(heap.keys, 5));
+        assertEquals(Integer.valueOf(3), heap.peek().value);
+        assertTrue(heap.containsValue(4));
+        assertFalse(heap.containsValue(5));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void addDupeValueTest() {
+        DaryMinHeap<Integer, Integer> heap = new DaryMinHeap<>();
+        heap.add(1, 5);
+        heap.add(2, 5);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void largerKeyDecreaseKeyTest() {
+        DaryMinHeap<Integer, Integer> heap = new DaryMinHeap<>();
+        heap.add(0, 1);
+        heap.decreaseKey(1, 2);
+    }
+
+    @Test (expected = NoSuchElementException.class)
+    public void invalidValueDecreaseKeyTest() {
+        DaryMinHeap<Integer, Integer> heap = new DaryMinHeap<>();
+        heap.decreaseKey(1, 0);
+    }
+
+    @Test (expected = NoSuchElementException.class)
+    public void extractMinEmptyTest() {
+        new DaryMinHeap<Integer, Integer>().extractMin();
+    }
+
+    @Test
+    public void heapSortTest() {
+        for (int arity = 2; arity <= 8; arity++) {
+            DaryMinHeap<Integer, Integer> heap = new DaryMinHeap<>(arity);
+            Random r = new Random(arity);
+            for (int i = 0; i < 2000; i++) {
+                heap.add(r.nextInt(500), i);
+            }
+            for (int i = 0; i < 2000; i += 3) {
+                heap.decreaseKey(i, -i);
+            }
+            int previous = Integer.MIN_VALUE;
+            while (!heap.isEmpty()) {
+                BinaryMinHeap.Entry<Integer, Integer> min = heap.extractMin();
+                assertTrue(previous <= min.key);
+                assertFalse(heap.containsValue(min.value));
+                previous = min.key;
+            }
+        }
+    }
+
+    @Test
+    public void addAllTest() {
+        DaryMinHeap<Integer, Integer> heap = new DaryMinHeap<>(4);
+        List<BinaryMinHeap.Entry<Integer, Integer>> entries = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            entries.add(new BinaryMinHeap.Entry<>((i * 37) % 1000, i));
+        }
+        heap.addAll(entries);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(heap.containsValue(i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.valueOf(i), heap.extractMin().key);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+import java.util.Arrays;
+
+/**
+ * A table-driven decoder for a prefix code. The next {@link #LOOKUP_BITS} bits of input index a
+ * lookup table whose entry holds both the decoded symbol and the length of its code word, so most
+ * symbols are resolved with a single array read; a code no longer than {@link #MAX_LOOKUP_BITS}
+ * bits gets a table as wide as its longest code word, so all of its symbols are. Code words longer
+ * than the lookup width point into a binary trie, stored in two primitive arrays, which is walked
+ * a bit at a time.
+ * <p>
+ * Canonical codes skip the trie walk: their code words of each length are consecutive integers,
+ * so a long code word is found by comparing the upcoming bits against the first code word of each
+ * length, which touches only a few small arrays before the one read of the symbol itself.
+ */
+final class DecodeTable {
+
+    static final int LOOKUP_BITS = 10;
+    static final int MAX_LOOKUP_BITS = 12;
+    static final int WIDE_LOOKUP_BITS = 16;
+    static final int MAX_SYMBOL = (1 << 25) - 1;
+    /** The longest code word the canonical path can peek at in one go. */
+    static final int MAX_CANONICAL_BITS = 57;
+
+    final int lookupBits;
+    /**
+     * Positive entries are a symbol shifted left by 6 and or'ed with its code length, negative
+     * entries are the complement of the trie node reached after lookupBits bits, and 0 marks a
+     * prefix that no code word starts with.
+     */
+    final int[] lookup;
+    /**
+     * Children of each trie node. Positive values are internal nodes, negative values are the
+     * complement of a leaf's symbol, and 0 is a missing child. Node 0 is the root.
+     */
+    int[] zero;
+    int[] one;
+    int nodes;
+    final int maxLength;
+    /**
+     * For canonical codes, the first code word of each length, the position in {@link
+     * #canonicalSymbols} of the first symbol of each length (plus one entry past the longest), and
+     * the symbols in code word order. Null for other codes.
+     */
+    private final long[] firstCode;
+    private final int[] firstIndex;
+    private final int[] canonicalSymbols;
+
+    /**
+     * Builds a decoder for the code words in a table.
+     *
+     * @param table the code words to decode
+     * @throws IllegalArgumentException if a symbol is too large or the code words are not
+     *                                  prefix-free
+     */
+    DecodeTable(CodeTable table) {
+        int maxLength = 1;
+        for (int i = 0; i < table.symbols.length; i++) {
+            if (table.symbols[i] > MAX_SYMBOL) {
+                throw new IllegalArgumentException("symbol too large to decode");
+            }
+            maxLength = Math.max(maxLength, table.lengths[i]);
+        }
+        this.zero = new int[table.symbols.length + 1];
+        this.one = new int[table.symbols.length + 1];
+        this.nodes = 1;
+        for (int i = 0; i < table.symbols.length; i++) {
+            insert(table.symbols[i], table.codes[i], table.lengths[i]);
+        }
+
+        // large alphabets get a lookup as wide as the log of their size, so the trie walk after
+        // it stays short even though almost every code word is longer than LOOKUP_BITS
+        int sizeBits = 32 - Integer.numberOfLeadingZeros(table.symbols.length);
+        this.lookupBits = maxLength <= MAX_LOOKUP_BITS ? maxLength
+                : Math.min(maxLength, Math.max(LOOKUP_BITS, Math.min(WIDE_LOOKUP_BITS, sizeBits)));
+        this.lookup = new int[1 << this.lookupBits];
+        for (int prefix = 0; prefix < this.lookup.length; prefix++) {
+            int node = 0;
+            int entry = ~0;
+            for (int depth = 1; depth <= this.lookupBits; depth++) {
+                int bit = (prefix >>> (this.lookupBits - depth)) & 1;
+                int child = bit == 0 ? this.zero[node] : this.one[node];
+                if (child == 0) {
+                    entry = 0;
+                    break;
+                }
+                if (child < 0) {
+                    entry = (~child << 6) | depth;
+                    break;
+                }
+                node = child;
+                entry = ~node;
+            }
+            this.lookup[prefix] = entry;
+        }
+
+        this.maxLength = maxLength;
+        if (maxLength <= MAX_CANONICAL_BITS && isCanonical(table)) {
+            this.firstCode = new long[maxLength + 1];
+            this.firstIndex = new int[maxLength + 2];
+            this.canonicalSymbols = table.symbols;
+            int i = table.symbols.length;
+            for (int length = maxLength; length >= 0; length--) {
+                this.firstIndex[length + 1] = i;
+                while (i > 0 && table.lengths[i - 1] == length) {
+                    i--;
+                }
+                this.firstCode[length] = i < table.symbols.length ? table.codes[i] : 0;
+            }
+            this.firstIndex[0] = 0;
+        } else {
+            this.firstCode = null;
+            this.firstIndex = null;
+            this.canonicalSymbols = null;
+        }
+    }
+
+    /**
+     * @return true if the code words are in order of non-decreasing length, each one the previous
+     *         one plus one, shifted left to its length
+     */
+    private static boolean isCanonical(CodeTable table) {
+        for (int i = 1; i < table.symbols.length; i++) {
+            int grow = table.lengths[i] - table.lengths[i - 1];
+            if (grow < 0 || table.codes[i] != (table.codes[i - 1] + 1) << grow) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void insert(int symbol, long code, int length) {
+        int node = 0;
+        for (int depth = length - 1; depth >= 0; depth--) {
+            int bit = (int) (code >>> depth) & 1;
+            int child = bit == 0 ? this.zero[node] : this.one[node];
+            if (child < 0 || (child > 0 && depth == 0)) {
+                throw new IllegalArgumentException("not a prefix code");
+            }
+            if (depth == 0) {
+                child = ~symbol;
+            } else if (child == 0) {
+                if (this.nodes == this.zero.length) {
+                    this.zero = Arrays.copyOf(this.zero, this.nodes * 2);
+                    this.one = Arrays.copyOf(this.one, this.nodes * 2);
+                }
+                child = this.nodes++;
+            }
+            if (bit == 0) {
+                this.zero[node] = child;
+            } else {
+                this.one[node] = child;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Decodes the next symbol.
+     *
+     * @param in the bits to decode from
+     * @return the decoded symbol
+     * @throws IllegalArgumentException if the upcoming bits are not a code word
+     */
+    int read(BitReader in) {
+        in.refill();
+        int entry = this.lookup[(int) in.peek(this.lookupBits)];
+        if (entry > 0) {
+            int length = entry & 63;
+            if (length > in.remaining) {
+                throw new IllegalArgumentException("not decodeable");
+            }
+            in.skip(length);
+            return entry >>> 6;
+        }
+        if (entry == 0 || in.remaining < this.lookupBits) {
+            throw new IllegalArgumentException("not decodeable");
+        }
+        if (this.firstCode != null) {
+            return readCanonical(in);
+        }
+        in.skip(this.lookupBits);
+        int node = ~entry;
+        while (true) {
+            int child = in.readBit() == 0 ? this.zero[node] : this.one[node];
+            if (child == 0) {
+                throw new IllegalArgumentException("not decodeable");
+            }
+            if (child < 0) {
+                return ~child;
+            }
+            node = child;
+        }
+    }
+
+    private int readCanonical(BitReader in) {
+        long bits = in.peek(this.maxLength);
+        for (int length = this.lookupBits + 1; length <= this.maxLength; length++) {
+            long offset = (bits >>> (this.maxLength - length)) - this.firstCode[length];
+            if (offset >= 0 && offset < this.firstIndex[length + 1] - this.firstIndex[length]) {
+                if (length > in.remaining) {
+                    break;
+                }
+                in.skip(length);
+                return this.canonicalSymbols[this.firstIndex[length] + (int) offset];
+            }
+        }
+        throw new IllegalArgumentException("not decodeable");
+    }
+}
@@ -0,0 +1,47 @@
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Helpers shared by the {@link BinaryMinHeap} implementations.
+ */
+final class Heaps {
+
+    private Heaps() {
+    }
+
+    /**
+     * Checks a batch of entries before any of them is added to a heap.
+     *
+     * @throws IllegalArgumentException if entries is null, any key is null, or any value is
+     *                                  already in the heap or appears more than once
+     */
+    static <Key extends Comparable<Key>, V> void checkEntries(BinaryMinHeap<Key, V> heap,
+            Collection<? extends BinaryMinHeap.Entry<Key, V>> entries) {
+        if (entries == null) {
+            throw new IllegalArgumentException("null entries");
+        }
+        Set<V> seen = new HashSet<V>(entries.size() * 2);
+        for (BinaryMinHeap.Entry<Key, V> e : entries) {
+            if (e.key == null) {
+                throw new IllegalArgumentException("null key");
+            }
+            if (heap.containsValue(e.value) || !seen.add(e.value)) {
+                throw new IllegalArgumentException("value already in heap");
+            }
+        }
+    }
+
+    /**
+     * Decides whether adding a batch one element at a time is cheaper than rebuilding the whole
+     * heap bottom-up.
+     *
+     * @param size  the number of elements already in the heap
+     * @param added the number of elements to add
+     * @return true if the batch should be added by repeated sift-ups
+     */
+    static boolean addIndividually(int size, int added) {
+        long total = (long) size + added;
+        return (long) added * (64 - Long.numberOfLeadingZeros(total)) <= total;
+    }
+}
@@ -0,0 +1,117 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Counts characters into primitive histograms indexed by char value, for building code tables
+ * from large seeds without a boxed map lookup per character.
+ * <p>
+ * When the {@code VectorHistograms} kernel of the optional {@code vector} module is on the class
+ * path and the {@code jdk.incubator.vector} module is present ({@code --add-modules
+ * jdk.incubator.vector}), slices are counted by that kernel; otherwise, or with {@code
+ * -Dhuffman.vector=false}, by a plain scalar loop. Both give identical counts.
+ */
+final class Histograms {
+
+    static final int ALPHABET = 1 << 16;
+    /** Seeds shorter than this are counted on the calling thread. */
+    static final int PARALLEL_THRESHOLD = 1 << 20;
+    /** Characters copied out of the seed at a time, so counting reads a plain array. */
+    static final int CHUNK = 8192;
+    static final Counter COUNTER = counter();
+
+    /**
+     * Adds the number of occurrences of each character in {@code seed[from, to)} to {@code
+     * counts}.
+     */
+    interface Counter {
+        void count(String seed, int from, int to, int[] counts);
+    }
+
+    private Histograms() {
+    }
+
+    /**
+     * @return the vector counter if it and its module are present and it is not disabled, else
+     *         the scalar one
+     */
+    private static Counter counter() {
+        if (Boolean.parseBoolean(System.getProperty("huffman.vector", "true"))
+                && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (Counter) Class.forName("VectorHistograms").getDeclaredConstructor()
+                        .newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // fall through to the scalar counter
+            }
+        }
+        return Histograms::countScalar;
+    }
+
+    /**
+     * Counts how often each character occurs in a seed. Long seeds are split into a few slices
+     * per worker of the common {@link ForkJoinPool}; each slice is counted into its own histogram
+     * and the histograms are summed at the end, so workers never share a counter.
+     * <p>
+     * Runtime: O(n / p + 65536 s) for n characters, p workers and s slices
+     *
+     * @param seed the characters to count
+     * @return the number of occurrences of each char value
+     */
+    static int[] count(String seed) {
+        int length = seed.length();
+        if (length < PARALLEL_THRESHOLD) {
+            int[] counts = new int[ALPHABET];
+            COUNTER.count(seed, 0, length, counts);
+            return counts;
+        }
+        int slices = Math.min(4 * ForkJoinPool.commonPool().getParallelism(),
+                length / (PARALLEL_THRESHOLD / 4));
+        int[][] partial = new int[slices][];
+        ForkJoinPool.commonPool().invoke(new BlockTask(0, slices, s -> {
+            int[] counts = new int[ALPHABET];
+            COUNTER.count(seed, (int) ((long) length * s / slices),
+                    (int) ((long) length * (s + 1) / slices), counts);
+            partial[s] = counts;
+        }));
+        int[] counts = partial[0];
+        for (int s = 1; s < slices; s++) {
+            int[] other = partial[s];
+            for (int c = 0; c < ALPHABET; c++) {
+                counts[c] += other[c];
+            }
+        }
+        return counts;
+    }
+
+    static void countScalar(String seed, int from, int to, int[] counts) {
+        char[] chars = new char[Math.min(CHUNK, to - from)];
+        for (int start = from; start < to; start += CHUNK) {
+            int end = Math.min(to, start + CHUNK);
+            seed.getChars(start, end, chars, 0);
+            for (int i = 0; i < end - start; i++) {
+                counts[chars[i]]++;
+            }
+        }
+    }
+
+    /**
+     * @param counts the number of occurrences of each char value
+     * @return a frequency map of the characters that occur at least once
+     */
+    static Map<Character, Integer> toMap(int[] counts) {
+        int distinct = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                distinct++;
+            }
+        }
+        Map<Character, Integer> alphabet = new HashMap<Character, Integer>(distinct * 2);
+        for (int c = 0; c < counts.length; c++) {
+            if (counts[c] > 0) {
+                alphabet.put((char) c, counts[c]);
+            }
+        }
+        return alphabet;
+    }
+}
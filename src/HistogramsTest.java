@@ -0,0 +1,48 @@
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class HistogramsTest {
+
+    private static boolean vectorAvailable() {
+        try {
+            Class.forName("VectorHistograms", false, HistogramsTest.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+                && !"false".equals(System.getProperty("huffman.vector"));
+    }
+
+    private static String text(int length, int alphabet, int runs) {
+        Random random = new Random(7);
+        StringBuilder s = new StringBuilder();
+        while (s.length() < length) {
+            char c = (char) random.nextInt(alphabet);
+            for (int i = random.nextInt(runs) + 1; i > 0; i--) {
+                s.append(c);
+            }
+        }
+        s.setLength(length);
+        return s.toString();
+    }
+
+    @Test
+    public void counterTest() {
+        assertEquals(vectorAvailable(),
+                Histograms.COUNTER.getClass().getSimpleName().equals("VectorHistograms"));
+    }
+
+    @Test
+    public void countTest() {
+        String seed = text(3 * Histograms.CHUNK + 5, 300, 40);
+        int[] counts = Histograms.count(seed);
+        int[] expected = new int[Histograms.ALPHABET];
+        for (int i = 0; i < seed.length(); i++) {
+            expected[seed.charAt(i)]++;
+        }
+        assertArrayEquals(expected, counts);
+    }
+}
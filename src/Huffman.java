@@ -1,5 +1,11 @@
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
 /**
  * Implements construction, encoding, and decoding logic of the Huffman coding algorithm. Characters
@@ -43,16 +49,16 @@ public class Huffman {
         }
     }
 
-    boolean hasCompressed;
-    int strLength;
-    int preCompressLength;
-    
-    int oldStrLength;
-    int oldPreCompressLength;
-    
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    /** The number of bit streams {@link #compressInterleaved(CharSequence)} splits input into. */
+    static final int STREAMS = 4;
+
     HashMap<Character, String> map = new HashMap<Character, String>();
-    HashMap<String, Character> revMap = new HashMap<String, Character>();
     Map<Character, Integer> freqMap = new HashMap<Character, Integer>();
+    CodeTable codeTable;
+    CodecMetrics metrics;
+    boolean canonical;
     
     /**
      * Constructs a {@code Huffman} instance from a seed string, from which to deduce the alphabet
@@ -75,24 +81,13 @@ public class Huffman {
             throw new IllegalArgumentException("seed of length 1");
         }
         this.priorityQueue = new BinaryMinHeapImpl<Integer, Huffman.Node<Character>>();
-        this.hasCompressed = false;
-        this.strLength = 0;
         
-        HashMap<Character, Integer> alphabet = new HashMap<Character, Integer>();
-        for (int i = 0; i < seed.length(); i++) {
-            char c = seed.charAt(i);
-            if (alphabet.containsKey(c)) {
-                Integer val = alphabet.get(c);
-                alphabet.replace(c, val + 1);
-            } else {
-                alphabet.put(c, 1);
-            }
-        }
-        Huffman huffman = new Huffman(alphabet);
+        Huffman huffman = new Huffman(Histograms.toMap(Histograms.count(seed)));
         this.priorityQueue = huffman.priorityQueue;
         this.map = huffman.map;
-        this.revMap = huffman.revMap;
         this.freqMap = huffman.freqMap;
+        this.codeTable = huffman.codeTable;
+        this.metrics = huffman.metrics;
     }
 
     /**
@@ -105,26 +100,17 @@ public class Huffman {
      *                                  or has any non-positive frequencies
      */
     public Huffman(Map<Character, Integer> alphabet) {
-        if (alphabet == null) {
-            throw new IllegalArgumentException("null alphabet");
-        }
-        if (alphabet.isEmpty()) {
-            throw new IllegalArgumentException("empty alphabet");
-        }
-        if (alphabet.size() < 2) {
-            throw new IllegalArgumentException("alphabet fewer than 2 characters");
-        }
+        checkAlphabet(alphabet);
         this.priorityQueue = new BinaryMinHeapImpl<Integer, Huffman.Node<Character>>();
-        this.hasCompressed = false;
-        this.strLength = 0;
         this.freqMap = alphabet;
         
+        List<BinaryMinHeap.Entry<Integer, Huffman.Node<Character>>> leaves =
+                new ArrayList<>(alphabet.size());
         for (Map.Entry<Character, Integer> asd : alphabet.entrySet()) {
-            if (asd.getValue() <= 0) {
-                throw new IllegalArgumentException("alphabet has non positive frequencies");
-            }
-            this.priorityQueue.add(asd.getValue(), new Huffman.Node<Character>(asd.getKey()));
+            leaves.add(new BinaryMinHeap.Entry<Integer, Huffman.Node<Character>>(asd.getValue(),
+                    new Huffman.Node<Character>(asd.getKey())));
         }
+        this.priorityQueue.addAll(leaves);
         
         while (this.priorityQueue.size() > 1) {
             Huffman.Node<Character> x = this.priorityQueue.peek().value;
@@ -139,10 +125,213 @@ public class Huffman {
             this.priorityQueue.add(xFreq + yFreq, combine);
         }
         buildHashMaps("", this.priorityQueue.peek().value);
+        this.codeTable = CodeTable.fromBitStrings(this.map);
+        this.metrics = new CodecMetrics(this.codeTable.symbols);
     }
     
+    /**
+     * Constructs a {@code Huffman} instance from a frequency map, optionally replacing the code
+     * words read off the tree with canonical ones of the same lengths. Canonical instances can
+     * share their model through {@link #header()}.
+     *
+     * @param alphabet  a frequency map for characters in the alphabet
+     * @param canonical whether to assign canonical code words
+     * @throws IllegalArgumentException if the alphabet is null, empty, has fewer than 2 characters,
+     *                                  or has any non-positive frequencies
+     */
+    public Huffman(Map<Character, Integer> alphabet, boolean canonical) {
+        this(alphabet);
+        if (canonical) {
+            useCanonicalTable(this.codeTable.canonicalize());
+        }
+    }
+
+    private Huffman(Huffman model) {
+        this.priorityQueue = new BinaryMinHeapImpl<Integer, Huffman.Node<Character>>();
+        this.map = model.map;
+        this.freqMap = model.freqMap;
+        this.codeTable = model.codeTable;
+        this.metrics = new CodecMetrics(this.codeTable.symbols);
+        this.canonical = model.canonical;
+    }
+
+    private Huffman(CodeTable table) {
+        this.priorityQueue = new BinaryMinHeapImpl<Integer, Huffman.Node<Character>>();
+        useCanonicalTable(table);
+    }
+
+    /**
+     * Constructs a canonical {@code Huffman} instance from a header written by {@link #header()}.
+     * No tree is built; the decoder is derived directly from the code lengths. The resulting
+     * instance has no frequencies, so it cannot report {@link #expectedEncodingLength()}.
+     *
+     * @param header the encoded code lengths
+     * @return an instance with the same code words as the one that wrote the header
+     * @throws IllegalArgumentException if the header is null, corrupt, describes fewer than 2
+     *                                  characters, or describes a symbol that is not a char
+     */
+    public static Huffman fromHeader(byte[] header) {
+        CodeTable table = CodeTable.fromHeader(header);
+        if (table.size() < 2) {
+            throw new IllegalArgumentException("alphabet fewer than 2 characters");
+        }
+        for (int symbol : table.symbols) {
+            if (symbol > Character.MAX_VALUE) {
+                throw new IllegalArgumentException("symbol is not a character");
+            }
+        }
+        return new Huffman(table);
+    }
+
+    /**
+     * Constructs a canonical {@code Huffman} instance from a frequency map without a heap or a
+     * tree. The frequencies are sorted once and code lengths are computed in place over a
+     * primitive array, so no {@link Node} or heap entry is ever allocated. The code is optimal,
+     * so its total cost, and so {@link #expectedEncodingLength()}, is the same as for {@link
+     * #Huffman(Map)}; when frequencies tie, individual code lengths may differ.
+     *
+     * @param alphabet a frequency map for characters in the alphabet
+     * @return a canonical instance for the alphabet
+     * @throws IllegalArgumentException if the alphabet is null, empty, has fewer than 2 characters,
+     *                                  or has any non-positive frequencies
+     */
+    public static Huffman fromFrequencies(Map<Character, Integer> alphabet) {
+        return canonical(alphabet, CodeLengths::of);
+    }
+
+    /**
+     * Builds a canonical instance from a frequency map, with code lengths computed from the
+     * frequencies by {@code lengths}.
+     */
+    private static Huffman canonical(Map<Character, Integer> alphabet,
+            Function<int[], int[]> lengths) {
+        checkAlphabet(alphabet);
+        int[] symbols = new int[alphabet.size()];
+        int[] freqs = new int[alphabet.size()];
+        int i = 0;
+        for (Map.Entry<Character, Integer> e : alphabet.entrySet()) {
+            symbols[i] = e.getKey();
+            freqs[i] = e.getValue();
+            i++;
+        }
+        Huffman huffman = new Huffman(CodeTable.canonical(symbols, lengths.apply(freqs)));
+        huffman.freqMap = alphabet;
+        return huffman;
+    }
+
+    /**
+     * Constructs a canonical {@code Huffman} instance from counts that are already sorted, in
+     * time linear in the size of the alphabet.
+     *
+     * @param symbols the characters in the alphabet
+     * @param counts  the frequency of each character, in non-decreasing order
+     * @return a canonical instance for the alphabet
+     * @throws IllegalArgumentException if either array is null, they differ in length, there are
+     *                                  fewer than 2 characters, a character is repeated, or the
+     *                                  counts are non-positive or not sorted
+     */
+    public static Huffman fromSortedCounts(char[] symbols, int[] counts) {
+        if (symbols == null || counts == null || symbols.length != counts.length) {
+            throw new IllegalArgumentException("invalid alphabet");
+        }
+        Map<Character, Integer> alphabet = new HashMap<Character, Integer>();
+        int[] ints = new int[symbols.length];
+        for (int i = 0; i < symbols.length; i++) {
+            ints[i] = symbols[i];
+            if (alphabet.put(symbols[i], counts[i]) != null) {
+                throw new IllegalArgumentException("duplicate character");
+            }
+        }
+        checkAlphabet(alphabet);
+        Huffman huffman = new Huffman(CodeTable.canonical(ints, CodeLengths.ofSorted(counts)));
+        huffman.freqMap = alphabet;
+        return huffman;
+    }
+
+    /**
+     * Constructs a canonical {@code Huffman} instance whose code words are no longer than {@code
+     * maxLength} bits. The code lengths are the cheapest possible under that limit, so {@link
+     * #expectedEncodingLength()} shows how much compression the limit costs compared to {@link
+     * #Huffman(Map)}. With a limit of at most 12 bits every code word is decoded with a single
+     * table lookup.
+     *
+     * @param alphabet  a frequency map for characters in the alphabet
+     * @param maxLength the longest code word allowed, in bits
+     * @return a canonical, length-limited instance for the alphabet
+     * @throws IllegalArgumentException if the alphabet is null, empty, has fewer than 2 characters,
+     *                                  or has any non-positive frequencies, or if maxLength is too
+     *                                  small to give every character its own code word
+     */
+    public static Huffman lengthLimited(Map<Character, Integer> alphabet, int maxLength) {
+        return canonical(alphabet, freqs -> CodeLengths.limited(freqs, maxLength));
+    }
+
+    /**
+     * Returns a canonical instance for the alphabet from the process-wide {@link CodecCache},
+     * building and caching it on a miss. Instances for equal frequency maps share their code
+     * table, which is cheaper than constructing one per request.
+     *
+     * @param alphabet a frequency map for characters in the alphabet
+     * @return a canonical instance for the alphabet, with its own compression statistics
+     * @throws IllegalArgumentException if the alphabet is null, empty, has fewer than 2 characters,
+     *                                  or has any non-positive frequencies
+     */
+    public static Huffman cached(Map<Character, Integer> alphabet) {
+        return CodecCache.shared().get(alphabet);
+    }
+
+    /**
+     * @return a new instance sharing the code words and frequencies of this one, which neither
+     *         instance modifies, but keeping its own compression statistics
+     */
+    Huffman share() {
+        return new Huffman(this);
+    }
+
+    static void checkAlphabet(Map<Character, Integer> alphabet) {
+        if (alphabet == null) {
+            throw new IllegalArgumentException("null alphabet");
+        }
+        if (alphabet.isEmpty()) {
+            throw new IllegalArgumentException("empty alphabet");
+        }
+        if (alphabet.size() < 2) {
+            throw new IllegalArgumentException("alphabet fewer than 2 characters");
+        }
+        for (Integer freq : alphabet.values()) {
+            if (freq == null || freq <= 0) {
+                throw new IllegalArgumentException("alphabet has non positive frequencies");
+            }
+        }
+    }
+
+    /**
+     * Serializes the code lengths of this instance, from which {@link #fromHeader(byte[])}
+     * rebuilds an identical codec.
+     *
+     * @return the encoded code lengths
+     * @throws IllegalStateException if this instance does not use canonical code words
+     */
+    public byte[] header() {
+        if (!this.canonical) {
+            throw new IllegalStateException("not canonical");
+        }
+        return this.codeTable.toHeader();
+    }
+
+    void useCanonicalTable(CodeTable table) {
+        this.codeTable = table;
+        this.metrics = new CodecMetrics(table.symbols);
+        this.canonical = true;
+        this.map = new HashMap<Character, String>();
+        for (int i = 0; i < table.size(); i++) {
+            String code = table.bitString(i);
+            this.map.put((char) table.symbols[i], code);
+        }
+    }
+
     void buildHashMaps(String s, Huffman.Node<Character> c) {
-        if (c.val.charValue() == '\u0000') {
+        if (c.left != null) {
             String l = s + "0";
             buildHashMaps(l, c.left);
             
@@ -150,7 +339,6 @@ public class Huffman {
             buildHashMaps(r, c.right);
         } else {
             this.map.put(c.val, s);
-            this.revMap.put(s, c.val);
         }
     } 
     
@@ -163,24 +351,262 @@ public class Huffman {
      *                                  that are not compressible
      */
     public String compress(String input) {
+        return compressToBytes(input).toBitString();
+    }
+
+    /**
+     * Compresses the input into packed bits, eight to a byte. Produces the same bits as {@link
+     * #compress(String)} without spending a char on each of them.
+     *
+     * @param input the characters to compress, can be empty
+     * @return the binary encoding of the input
+     * @throws IllegalArgumentException if the input is null or if the input contains characters
+     *                                  that are not compressible
+     */
+    public PackedBits compressToBytes(CharSequence input) {
         if (input == null) {
             throw new IllegalArgumentException("null input");
         }
-        this.oldPreCompressLength = this.preCompressLength;
-        this.preCompressLength = input.length();
-        this.hasCompressed = true;
-        StringBuilder s = new StringBuilder();
-        for (int i = 0; i < input.length(); i++) {
-            if (!this.revMap.containsValue(input.charAt(i))) {
-                throw new IllegalArgumentException("not compressible");
+        long start = System.nanoTime();
+        BitWriter out = new BitWriter(input.length() / 2);
+        encode(input, 0, input.length(), out);
+        PackedBits bits = out.toPackedBits();
+        this.metrics.recordCompress(input.length(), bits.bitLength(), System.nanoTime() - start);
+        return bits;
+    }
+
+    /**
+     * Compresses the input in independent blocks, encoding the blocks concurrently on the common
+     * {@link ForkJoinPool}. Each block starts on a byte boundary, and the resulting offset table
+     * lets {@link #decompressParallel(PackedBlocks)} decode the blocks concurrently as well.
+     *
+     * @param input     the characters to compress, can be empty
+     * @param blockSize the number of characters in each block
+     * @return the binary encoding of the input, split into blocks
+     * @throws IllegalArgumentException if the input is null, blockSize is not positive, or the
+     *                                  input contains characters that are not compressible
+     */
+    public PackedBlocks compressParallel(CharSequence input, int blockSize) {
+        if (input == null) {
+            throw new IllegalArgumentException("null input");
+        }
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("non positive block size");
+        }
+        long start = System.nanoTime();
+        int length = input.length();
+        int count = (int) (((long) length + blockSize - 1) / blockSize);
+        PackedBits[] blocks = new PackedBits[count];
+        int size = this.codeTable.size();
+        int[] total = new int[size];
+        ForkJoinPool.commonPool().invoke(new BlockTask(0, count, b -> {
+            int from = b * blockSize;
+            int to = Math.min(length, from + blockSize);
+            BitWriter out = new BitWriter((to - from) / 2);
+            int[] counts = SCRATCH.get().counts(size);
+            try {
+                encode(input, from, to, out, counts);
+            } catch (IllegalArgumentException e) {
+                Arrays.fill(counts, 0, size, 0);
+                throw e;
             }
-            s.append(map.get(input.charAt(i)));
+            blocks[b] = out.toPackedBits();
+            synchronized (total) {
+                for (int i = 0; i < size; i++) {
+                    total[i] += counts[i];
+                    counts[i] = 0;
+                }
+            }
+        }));
+        this.metrics.countSymbols(total, size);
+
+        long[] starts = new long[count];
+        long[] ends = new long[count];
+        long bytes = 0;
+        for (int b = 0; b < count; b++) {
+            starts[b] = bytes * 8;
+            ends[b] = starts[b] + blocks[b].bitLength();
+            bytes += blocks[b].bytes().length;
+        }
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("input too large");
+        }
+        byte[] all = new byte[(int) bytes];
+        ForkJoinPool.commonPool().invoke(new BlockTask(0, count, b -> {
+            byte[] block = blocks[b].bytes();
+            System.arraycopy(block, 0, all, (int) (starts[b] >>> 3), block.length);
+        }));
+        long bitLength = count == 0 ? 0 : ends[count - 1];
+        this.metrics.recordCompress(length, bitLength, System.nanoTime() - start);
+        return new PackedBlocks(new PackedBits(all, bitLength), blockSize, length, starts, ends);
+    }
+
+    /**
+     * Compresses the input into a single bit stream, recording a sync point every {@code
+     * interval} characters. The bits are identical to those of {@link
+     * #compressToBytes(CharSequence)}; the sync points let {@link #decompressRange(PackedBlocks,
+     * int, int)} start decoding near any character instead of at the first one. {@link
+     * PackedBlocks#toBytes()} stores the sync points along with the bits, so random access still
+     * works on stored data.
+     *
+     * @param input    the characters to compress, can be empty
+     * @param interval the number of characters between sync points
+     * @return the binary encoding of the input, with a sync point at the start of each interval
+     * @throws IllegalArgumentException if the input is null, interval is not positive, or the
+     *                                  input contains characters that are not compressible
+     */
+    public PackedBlocks compressIndexed(CharSequence input, int interval) {
+        if (input == null) {
+            throw new IllegalArgumentException("null input");
+        }
+        if (interval <= 0) {
+            throw new IllegalArgumentException("non positive interval");
+        }
+        long start = System.nanoTime();
+        int length = input.length();
+        int count = (int) (((long) length + interval - 1) / interval);
+        long[] starts = new long[count];
+        long[] ends = new long[count];
+        BitWriter out = new BitWriter(length / 2);
+        int size = this.codeTable.size();
+        int[] counts = SCRATCH.get().counts(size);
+        try {
+            for (int b = 0; b < count; b++) {
+                starts[b] = out.bitLength();
+                encode(input, b * interval, Math.min(length, b * interval + interval), out,
+                        counts);
+                ends[b] = out.bitLength();
+            }
+        } catch (IllegalArgumentException e) {
+            Arrays.fill(counts, 0, size, 0);
+            throw e;
+        }
+        this.metrics.countSymbols(counts, size);
+        PackedBits bits = out.toPackedBits();
+        this.metrics.recordCompress(length, bits.bitLength(), System.nanoTime() - start);
+        return new PackedBlocks(bits, interval, length, starts, ends);
+    }
+
+    /**
+     * Compresses the input into four bit streams, one per quarter of the input, so that {@link
+     * #decompressInterleaved(byte[])} can decode all four in a single loop: with no data
+     * dependency between the streams, the processor overlaps their table lookups instead of
+     * waiting for each code length before starting on the next symbol.
+     * <p>
+     * The output is self-contained. A header of varints holds the number of characters and the
+     * length in bytes of the first three streams, which start on byte boundaries right after it;
+     * the fourth stream takes up the rest. The first three quarters are {@code length / 4}
+     * characters each and the fourth also holds the remainder.
+     *
+     * @param input the characters to compress, can be empty
+     * @return the header followed by the four streams
+     * @throws IllegalArgumentException if the input is null or if the input contains characters
+     *                                  that are not compressible
+     */
+    public byte[] compressInterleaved(CharSequence input) {
+        if (input == null) {
+            throw new IllegalArgumentException("null input");
+        }
+        long start = System.nanoTime();
+        int length = input.length();
+        int quarter = length / STREAMS;
+        byte[][] streams = new byte[STREAMS][];
+        int size = this.codeTable.size();
+        int[] counts = SCRATCH.get().counts(size);
+        try {
+            for (int i = 0; i < STREAMS; i++) {
+                BitWriter out = new BitWriter(quarter / 2);
+                encode(input, i * quarter, i == STREAMS - 1 ? length : (i + 1) * quarter, out,
+                        counts);
+                streams[i] = out.toPackedBits().bytes();
+            }
+        } catch (IllegalArgumentException e) {
+            Arrays.fill(counts, 0, size, 0);
+            throw e;
+        }
+        this.metrics.countSymbols(counts, size);
+        ByteArrayOutputStream frame = new ByteArrayOutputStream(
+                16 + streams[0].length * STREAMS);
+        CodeTable.writeVarInt(frame, length);
+        for (int i = 0; i < STREAMS - 1; i++) {
+            CodeTable.writeVarInt(frame, streams[i].length);
+        }
+        for (byte[] stream : streams) {
+            frame.write(stream, 0, stream.length);
+        }
+        byte[] bytes = frame.toByteArray();
+        this.metrics.recordCompress(length, 8L * bytes.length, System.nanoTime() - start);
+        return bytes;
+    }
+
+    /**
+     * Writes the code words of {@code input[from, to)} and counts the symbols into {@link
+     * #metrics}. Symbols are counted into a per-thread array first and only published if every
+     * character was compressible, so a failed call leaves the symbol counts untouched. Calls
+     * that encode several blocks use {@link #encode(CharSequence, int, int, BitWriter, int[])}
+     * instead and publish once, after the last block.
+     *
+     * @throws IllegalArgumentException if a character is not compressible
+     */
+    void encode(CharSequence input, int from, int to, BitWriter out) {
+        CodeTable table = this.codeTable;
+        Scratch scratch = SCRATCH.get();
+        int n = to - from;
+        if (n < table.size()) {
+            // shorter than the alphabet: remember each symbol rather than scan a full table
+            int[] indices = scratch.indices(n);
+            for (int i = 0; i < n; i++) {
+                indices[i] = table.write(input.charAt(from + i), out);
+            }
+            for (int i = 0; i < n; i++) {
+                this.metrics.countSymbol(indices[i]);
+            }
+            return;
+        }
+        int[] counts = scratch.counts(table.size());
+        try {
+            table.writeAll(input, from, to, counts, out);
+        } catch (IllegalArgumentException e) {
+            Arrays.fill(counts, 0, table.size(), 0);
+            throw e;
+        }
+        this.metrics.countSymbols(counts, table.size());
+    }
+
+    /**
+     * Writes the code words of {@code input[from, to)} and adds the symbols to {@code counts},
+     * for a caller encoding several blocks to publish once all of them succeed. On failure the
+     * counts are left partly updated, and the caller must discard them.
+     *
+     * @param counts incremented at the position in the code table of every character written
+     * @throws IllegalArgumentException if a character is not compressible
+     */
+    void encode(CharSequence input, int from, int to, BitWriter out, int[] counts) {
+        this.codeTable.writeAll(input, from, to, counts, out);
+    }
+
+    /**
+     * Per-thread buffers for {@link #encode}, so counting symbols does not allocate per call.
+     * {@link #counts} is all zeroes between calls.
+     */
+    private static final class Scratch {
+        private int[] indices = new int[0];
+        private int[] counts = new int[0];
+
+        int[] indices(int length) {
+            if (this.indices.length < length) {
+                this.indices = new int[length];
+            }
+            return this.indices;
+        }
+
+        int[] counts(int length) {
+            if (this.counts.length < length) {
+                this.counts = new int[length];
+            }
+            return this.counts;
         }
-        this.oldStrLength = this.strLength;
-        this.strLength = s.length();
-        return s.toString();
     }
-    
 
     /**
      * Decompresses the input string.
@@ -193,45 +619,194 @@ public class Huffman {
      *                                  that is not decodable
      */
     public String decompress(String input) {
+        PackedBits bits = PackedBits.fromBitString(input);
+        return decompress(bits.bytes(), bits.bitLength());
+    }
+
+    /**
+     * Decompresses packed bits, as produced by {@link #compressToBytes(CharSequence)}.
+     *
+     * @param input     the packed bits to decompress
+     * @param bitLength the number of valid bits in input
+     * @return the decoded characters
+     * @throws IllegalArgumentException if the input is null, bitLength does not fit in the input,
+     *                                  or the bits contain a sequence that is not decodable
+     */
+    public String decompress(byte[] input, long bitLength) {
         if (input == null) {
             throw new IllegalArgumentException("null input");
         }
+        long start = System.nanoTime();
+        BitReader in = new BitReader(input, bitLength);
         StringBuilder s = new StringBuilder();
+        while (in.remaining() > 0) {
+            s.append((char) this.codeTable.decode(in));
+        }
+        this.metrics.recordDecompress(s.length(), bitLength, System.nanoTime() - start);
+        return s.toString();
+    }
 
-        int x = 0;
-        int i = 0;
-        while (i < input.length()) {
-            int j = i + x;
-            if (j == input.length() + 1) {
-                throw new IllegalArgumentException("not decodeable");
-            }
-            if (this.map.containsValue(input.substring(i, j))) {
-                s.append(this.revMap.get(input.substring(i, j)));
-                i = j;
-                x = 0;
-            } else {
-                x++;
+    /**
+     * Decompresses blocks produced by {@link #compressParallel(CharSequence, int)}, decoding the
+     * blocks concurrently on the common {@link ForkJoinPool}.
+     *
+     * @param input the blocks to decompress
+     * @return the decoded characters
+     * @throws IllegalArgumentException if the input is null, or any block contains a sequence of
+     *                                  bits that is not decodable or does not decode to exactly
+     *                                  the recorded number of characters
+     */
+    public String decompressParallel(PackedBlocks input) {
+        if (input == null) {
+            throw new IllegalArgumentException("null input");
+        }
+        long start = System.nanoTime();
+        char[] out = new char[input.length()];
+        byte[] bytes = input.bits().bytes();
+        ForkJoinPool.commonPool().invoke(new BlockTask(0, input.blockCount(),
+            b -> decodeBlock(input, b, bytes, out, b * input.blockSize())));
+        this.metrics.recordDecompress(out.length, input.bits().bitLength(),
+                System.nanoTime() - start);
+        return new String(out);
+    }
+
+    /**
+     * Decompresses a range of characters, decoding only from the block or sync point at or
+     * before {@code start} rather than from the beginning.
+     * <p>
+     * Runtime: O(length + blockSize)
+     *
+     * @param input  the blocks from {@link #compressIndexed(CharSequence, int)} or {@link
+     *               #compressParallel(CharSequence, int)}
+     * @param start  the index of the first character to decode
+     * @param length the number of characters to decode
+     * @return the decoded characters
+     * @throws IllegalArgumentException if the input is null, the range is outside of the input,
+     *                                  or the bits are not decodable
+     */
+    public String decompressRange(PackedBlocks input, int start, int length) {
+        if (input == null) {
+            throw new IllegalArgumentException("null input");
+        }
+        if (start < 0 || length < 0 || start > input.length() - length) {
+            throw new IllegalArgumentException("invalid range");
+        }
+        long begin = System.nanoTime();
+        char[] out = new char[length];
+        byte[] bytes = input.bits().bytes();
+        long bits = 0;
+        int block = start / input.blockSize();
+        int skip = start - block * input.blockSize();
+        int n = 0;
+        while (n < length) {
+            BitReader in = new BitReader(bytes, input.starts[block], input.ends[block]);
+            int count = Math.min(input.blockLength(block), skip + length - n);
+            for (int i = 0; i < count; i++) {
+                char c = (char) this.codeTable.decode(in);
+                if (i >= skip) {
+                    out[n++] = c;
+                }
             }
+            bits += input.ends[block] - input.starts[block] - in.remaining();
+            skip = 0;
+            block++;
+        }
+        this.metrics.recordDecompress(length, bits, System.nanoTime() - begin);
+        return new String(out);
+    }
+
+    /**
+     * Decompresses the output of {@link #compressInterleaved(CharSequence)}, advancing all four
+     * streams in the same loop.
+     *
+     * @param input the header and streams to decompress
+     * @return the decoded characters
+     * @throws IllegalArgumentException if the input is null, its header is corrupt, or a stream
+     *                                  contains a sequence of bits that is not decodable or does
+     *                                  not decode to exactly its share of the characters
+     */
+    public String decompressInterleaved(byte[] input) {
+        if (input == null) {
+            throw new IllegalArgumentException("null input");
+        }
+        long begin = System.nanoTime();
+        int[] position = {0};
+        int length = CodeTable.readVarInt(input, position);
+        long[] starts = new long[STREAMS + 1];
+        for (int i = 1; i < STREAMS; i++) {
+            starts[i] = CodeTable.readVarInt(input, position) & 0xFFFFFFFFL;
+        }
+        starts[0] = position[0];
+        for (int i = 1; i < STREAMS; i++) {
+            starts[i] += starts[i - 1];
+        }
+        starts[STREAMS] = input.length;
+        // every character takes at least one bit, which also bounds the output allocation
+        if (length < 0 || starts[STREAMS - 1] > input.length
+                || length > 8L * (input.length - starts[0])) {
+            throw new IllegalArgumentException("not decodeable");
+        }
+        DecodeTable table = this.codeTable.decoder();
+        BitReader in0 = new BitReader(input, starts[0] * 8, starts[1] * 8);
+        BitReader in1 = new BitReader(input, starts[1] * 8, starts[2] * 8);
+        BitReader in2 = new BitReader(input, starts[2] * 8, starts[3] * 8);
+        BitReader in3 = new BitReader(input, starts[3] * 8, starts[4] * 8);
+        int quarter = length / STREAMS;
+        char[] out = new char[length];
+        for (int i = 0; i < quarter; i++) {
+            out[i] = (char) table.read(in0);
+            out[i + quarter] = (char) table.read(in1);
+            out[i + 2 * quarter] = (char) table.read(in2);
+            out[i + 3 * quarter] = (char) table.read(in3);
+        }
+        for (int i = 4 * quarter; i < length; i++) {
+            out[i] = (char) table.read(in3);
+        }
+        // only the zero padding of each stream's last byte may be left over
+        if (in0.remaining() >= 8 || in1.remaining() >= 8 || in2.remaining() >= 8
+                || in3.remaining() >= 8) {
+            throw new IllegalArgumentException("not decodeable");
+        }
+        this.metrics.recordDecompress(length, 8L * input.length, System.nanoTime() - begin);
+        return new String(out);
+    }
+
+    private void decodeBlock(PackedBlocks input, int block, byte[] bytes, char[] out, int at) {
+        BitReader in = new BitReader(bytes, input.starts[block], input.ends[block]);
+        for (int i = at; i < at + input.blockLength(block); i++) {
+            out[i] = (char) this.codeTable.decode(in);
+        }
+        if (in.remaining() != 0) {
+            throw new IllegalArgumentException("not decodeable");
         }
-        return s.toString();
     }
 
     /**
      * Computes the compression ratio so far. This is the length of all output strings from {@link
      * #compress(String)} divided by the length of all input strings to {@link #compress(String)}.
-     * Assume that each char in the input string is a 16 bit int.
+     * Assume that each char in the input string is a 16 bit int. The other compress methods count
+     * towards the ratio as well. Calling this method does not change the result of later calls.
      *
      * @return the ratio of the total output length to the total input length in bits
      * @throws IllegalStateException if no calls have been made to {@link #compress(String)} before
      *                               calling this method
      */
     public double compressionRatio() {
-        if (!this.hasCompressed) {
+        if (this.metrics.compressCalls.sum() == 0) {
             throw new IllegalStateException("has not compressed");
         }
-        this.strLength += this.oldStrLength;
-        this.preCompressLength += this.oldPreCompressLength;
-        return (double) this.strLength / ((double) 16 * (double) this.preCompressLength);
+        return (double) this.metrics.compressedBits.sum()
+                / (16.0 * this.metrics.compressedChars.sum());
+    }
+
+    /**
+     * Returns the live statistics of this instance, which every compress and decompress method
+     * updates. Take a {@link CodecMetrics#snapshot()} to export them.
+     *
+     * @return the statistics of this instance
+     */
+    public CodecMetrics metrics() {
+        return this.metrics;
     }
 
     /**
@@ -242,15 +817,18 @@ public class Huffman {
      * character multiplied by the probability that character occurs.
      *
      * @return the expected encoding length of an arbitrary character in the alphabet
+     * @throws IllegalStateException if this instance was built from a header and has no
+     *                               frequencies
      */
     public double expectedEncodingLength() {
-        int sum = 0;
-        for (Integer i : this.freqMap.values()) {
-            sum += i;
+        if (this.freqMap.isEmpty()) {
+            throw new IllegalStateException("no frequencies");
         }
-        int sum2 = 0;
-        for (Character c : this.revMap.values()) {
-            sum2 += this.map.get(c).length() * this.freqMap.get(c);
+        long sum = 0;
+        long sum2 = 0;
+        for (Map.Entry<Character, Integer> e : this.freqMap.entrySet()) {
+            sum += e.getValue();
+            sum2 += (long) this.codeTable.length(e.getKey()) * e.getValue();
         }
         return (double) sum2 / (double) sum;
     }
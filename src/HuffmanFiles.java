@@ -0,0 +1,309 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * File-to-file compression of text that never holds the whole file in memory. Sources are
+ * memory-mapped a window at a time and decoded straight into a small character buffer.
+ * Compression makes two passes over the mapped source: the first counts character frequencies
+ * to build a canonical {@link Huffman} instance, the second encodes into a memory-mapped
+ * destination whose exact size is known from the first pass.
+ * <p>
+ * A compressed file holds a 4 byte big-endian header length, the code-length header from {@link
+ * Huffman#header()}, and then the packed bits in the format written by {@link HuffmanWriter}.
+ */
+public final class HuffmanFiles {
+
+    static final int WINDOW_SIZE = 1 << 27;
+    static final int BUFFER_SIZE = 8192;
+
+    private HuffmanFiles() {
+    }
+
+    /**
+     * Compresses a text file.
+     *
+     * @param source  the file to compress
+     * @param target  the file to write, replaced if it exists
+     * @param charset the encoding of the source
+     * @return the size of the compressed file in bytes
+     * @throws IOException              if either file cannot be accessed, or the source is not
+     *                                  valid in the given charset
+     * @throws IllegalArgumentException if the source has fewer than 2 distinct characters
+     */
+    public static long compress(Path source, Path target, Charset charset) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            long[] counts = new long[Character.MAX_VALUE + 1];
+            decodeMapped(in, charset, chars -> {
+                char[] a = chars.array();
+                for (int i = chars.arrayOffset() + chars.position(); i < chars.limit(); i++) {
+                    counts[a[i]]++;
+                }
+            });
+
+            Huffman huffman = new Huffman(frequencies(counts), true);
+            long bitLength = 0;
+            for (int c = 0; c < counts.length; c++) {
+                bitLength += counts[c] * huffman.codeTable.length(c);
+            }
+            byte[] header = huffman.header();
+            long size = 4 + header.length + (bitLength + 7) / 8 + 1;
+
+            try (FileChannel out = FileChannel.open(target, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedOutputStream mapped = new MappedOutputStream(out, size);
+                mapped.write(ByteBuffer.allocate(4).putInt(header.length).array());
+                mapped.write(header);
+                BitWriter bits = new BitWriter(mapped, BUFFER_SIZE);
+                CodeTable table = huffman.codeTable;
+                try {
+                    decodeMapped(in, charset, chars -> {
+                        char[] a = chars.array();
+                        for (int i = chars.arrayOffset() + chars.position(); i < chars.limit();
+                                i++) {
+                            table.encode(a[i], bits);
+                        }
+                    });
+                    bits.finish();
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+            return size;
+        }
+    }
+
+    /**
+     * Decompresses a file written by {@link #compress(Path, Path, Charset)}.
+     *
+     * @param source  the compressed file
+     * @param target  the file to write, replaced if it exists
+     * @param charset the encoding to write the text in
+     * @return the number of characters decompressed
+     * @throws IOException              if either file cannot be accessed, or the text cannot be
+     *                                  encoded in the given charset
+     * @throws IllegalArgumentException if the source is not a valid compressed file
+     */
+    public static long decompress(Path source, Path target, Charset charset) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE,
+                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedInputStream mapped = new MappedInputStream(in);
+            byte[] length = readFully(mapped, 4, in.size());
+            byte[] header = readFully(mapped, ByteBuffer.wrap(length).getInt(), in.size() - 4);
+            HuffmanReader reader = new HuffmanReader(Huffman.fromHeader(header), mapped);
+
+            CharsetEncoder encoder = charset.newEncoder();
+            CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+            ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE * 4);
+            long total = 0;
+            boolean end = false;
+            while (!end) {
+                int n = reader.read(chars.array(), chars.position(), chars.remaining());
+                if (n < 0) {
+                    end = true;
+                } else {
+                    chars.position(chars.position() + n);
+                    total += n;
+                }
+                chars.flip();
+                while (true) {
+                    CoderResult result = encoder.encode(chars, bytes, end);
+                    if (result.isError()) {
+                        result.throwException();
+                    }
+                    if (result.isUnderflow()) {
+                        break;
+                    }
+                    drain(bytes, out);
+                }
+                chars.compact();
+            }
+            while (encoder.flush(bytes).isOverflow()) {
+                drain(bytes, out);
+            }
+            drain(bytes, out);
+            return total;
+        }
+    }
+
+    /**
+     * Scales 64-bit counts down until their sum fits in an int, keeping every seen character at
+     * a frequency of at least 1.
+     */
+    static Map<Character, Integer> frequencies(long[] counts) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        long divisor = total / Integer.MAX_VALUE + 1;
+        Map<Character, Integer> freq = new HashMap<Character, Integer>();
+        for (int c = 0; c < counts.length; c++) {
+            if (counts[c] > 0) {
+                freq.put((char) c, (int) Math.max(1, counts[c] / divisor));
+            }
+        }
+        return freq;
+    }
+
+    interface CharConsumer {
+        void accept(CharBuffer chars) throws IOException;
+    }
+
+    /**
+     * Decodes a whole file through successive read-only mappings, handing each buffer of
+     * characters to {@code consumer}. Bytes of a character split across two windows are mapped
+     * again at the start of the next one.
+     */
+    static void decodeMapped(FileChannel in, Charset charset, CharConsumer consumer)
+            throws IOException {
+        CharsetDecoder decoder = charset.newDecoder();
+        CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+        long size = in.size();
+        long position = 0;
+        boolean last = false;
+        while (!last) {
+            long length = Math.min(WINDOW_SIZE, size - position);
+            last = position + length == size;
+            MappedByteBuffer bytes = in.map(FileChannel.MapMode.READ_ONLY, position, length);
+            while (true) {
+                CoderResult result = decoder.decode(bytes, chars, last);
+                if (result.isError()) {
+                    result.throwException();
+                }
+                chars.flip();
+                consumer.accept(chars);
+                chars.clear();
+                if (result.isUnderflow()) {
+                    break;
+                }
+            }
+            position += bytes.position();
+        }
+        while (decoder.flush(chars).isOverflow()) {
+            chars.flip();
+            consumer.accept(chars);
+            chars.clear();
+        }
+        chars.flip();
+        consumer.accept(chars);
+    }
+
+    private static void drain(ByteBuffer bytes, FileChannel out) throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            out.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    /**
+     * Reads exactly {@code length} bytes, refusing lengths larger than what is left of the file
+     * before allocating anything, so a corrupt length cannot exhaust the heap.
+     *
+     * @param available the number of bytes left in the file
+     */
+    private static byte[] readFully(InputStream in, int length, long available)
+            throws IOException {
+        if (length < 0 || length > available) {
+            throw new IllegalArgumentException("corrupt header");
+        }
+        byte[] b = new byte[length];
+        int n = 0;
+        while (n < length) {
+            int read = in.read(b, n, length - n);
+            if (read < 0) {
+                throw new IllegalArgumentException("corrupt header");
+            }
+            n += read;
+        }
+        return b;
+    }
+
+    /**
+     * Reads a file through successive read-only mappings.
+     */
+    static class MappedInputStream extends InputStream {
+        private final FileChannel channel;
+        private long next;
+        private MappedByteBuffer window;
+
+        MappedInputStream(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (this.window == null || !this.window.hasRemaining()) {
+                long length = Math.min(WINDOW_SIZE, this.channel.size() - this.next);
+                if (length <= 0) {
+                    return -1;
+                }
+                this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, this.next, length);
+                this.next += length;
+            }
+            int n = Math.min(len, this.window.remaining());
+            this.window.get(b, off, n);
+            return n;
+        }
+    }
+
+    /**
+     * Writes a file of known size through successive read-write mappings.
+     */
+    static class MappedOutputStream extends OutputStream {
+        private final FileChannel channel;
+        private final long size;
+        private long next;
+        private MappedByteBuffer window;
+
+        MappedOutputStream(FileChannel channel, long size) {
+            this.channel = channel;
+            this.size = size;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (this.window == null || !this.window.hasRemaining()) {
+                    long length = Math.min(WINDOW_SIZE, this.size - this.next);
+                    if (length <= 0) {
+                        throw new IOException("write past end of mapping");
+                    }
+                    this.window = this.channel.map(FileChannel.MapMode.READ_WRITE, this.next,
+                            length);
+                    this.next += length;
+                }
+                int n = Math.min(len, this.window.remaining());
+                this.window.put(b, off, n);
+                off += n;
+                len -= n;
+            }
+        }
+    }
+}
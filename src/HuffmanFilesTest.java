@@ -0,0 +1,60 @@
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class HuffmanFilesTest {
+
+    private Path source;
+    private Path compressed;
+    private Path target;
+
+    @Before
+    public void setUp() throws IOException {
+        source = Files.createTempFile("huffman", ".txt");
+        compressed = Files.createTempFile("huffman", ".huf");
+        target = Files.createTempFile("huffman", ".out");
+        source.toFile().deleteOnExit();
+        compressed.toFile().deleteOnExit();
+        target.toFile().deleteOnExit();
+    }
+
+    @Test
+    public void roundTripTest() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            text.append("h\u00e9llo w\u00f6rld ").append(i % 97).append('\n');
+        }
+        Files.write(source, text.toString().getBytes(StandardCharsets.UTF_8));
+        long size = HuffmanFiles.compress(source, compressed, StandardCharsets.UTF_8);
+        assertEquals(Files.size(compressed), size);
+        assertTrue(size < Files.size(source));
+        assertEquals(text.length(),
+                HuffmanFiles.decompress(compressed, target, StandardCharsets.UTF_8));
+        assertEquals(text.toString(), new String(Files.readAllBytes(target),
+                StandardCharsets.UTF_8));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void singleCharacterTest() throws IOException {
+        Files.write(source, "aaaa".getBytes(StandardCharsets.UTF_8));
+        HuffmanFiles.compress(source, compressed, StandardCharsets.UTF_8);
+    }
+
+    @Test (expected = IOException.class)
+    public void malformedTest() throws IOException {
+        Files.write(source, new byte[] {'a', 'b', (byte) 0xFF});
+        HuffmanFiles.compress(source, compressed, StandardCharsets.UTF_8);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void oversizedHeaderTest() throws IOException {
+        Files.write(compressed, new byte[] {0x7F, (byte) 0xFF, (byte) 0xFF, 0x00, 1, 2, 3});
+        HuffmanFiles.decompress(compressed, target, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,82 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
+/**
+ * A {@link Reader} that decompresses characters written by a {@link HuffmanWriter}. Compressed
+ * bytes are pulled from the underlying {@link InputStream} through a fixed-size buffer and decoded
+ * on demand, so memory use does not depend on the length of the stream.
+ */
+public class HuffmanReader extends Reader {
+
+    private final SymbolCoder table;
+    private final InputStream in;
+    private final BitReader bits;
+    private boolean closed;
+
+    /**
+     * @param huffman the codec whose code words to use
+     * @param in      the stream to read compressed bytes from
+     * @throws IllegalArgumentException if huffman or in is null
+     */
+    public HuffmanReader(Huffman huffman, InputStream in) {
+        this(huffman == null ? null : huffman.codeTable, in);
+    }
+
+    /**
+     * Streams through an adaptive model instead of a fixed code table. The model must be fresh,
+     * and used by nothing else, on both the writing and the reading side.
+     *
+     * @param adaptive the model to decode with
+     * @param in       the stream to read compressed bytes from
+     * @throws IllegalArgumentException if adaptive or in is null
+     */
+    public HuffmanReader(AdaptiveHuffman adaptive, InputStream in) {
+        this((SymbolCoder) adaptive, in);
+    }
+
+    private HuffmanReader(SymbolCoder table, InputStream in) {
+        if (table == null || in == null) {
+            throw new IllegalArgumentException("null argument");
+        }
+        this.table = table;
+        this.in = in;
+        this.bits = new BitReader(in, HuffmanWriter.BUFFER_SIZE);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException if the stream contains a sequence of bits that is not
+     *                                  decodable
+     */
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (this.closed) {
+            throw new IOException("stream closed");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        try {
+            int n = 0;
+            while (n < len) {
+                this.bits.refill();
+                if (this.bits.remaining() == 0) {
+                    break;
+                }
+                cbuf[off + n++] = (char) this.table.decode(this.bits);
+            }
+            return n == 0 ? -1 : n;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.closed = true;
+        this.in.close();
+    }
+}
@@ -0,0 +1,85 @@
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class HuffmanStreamTest {
+
+    private Huffman huffman;
+    private ByteArrayOutputStream bytes;
+
+    @Before
+    public void setUp() {
+        huffman = new Huffman("asaasd");
+        bytes = new ByteArrayOutputStream();
+    }
+
+    private String readAll(InputStream in) throws IOException {
+        HuffmanReader reader = new HuffmanReader(huffman, in);
+        StringBuilder s = new StringBuilder();
+        int c;
+        while ((c = reader.read()) != -1) {
+            s.append((char) c);
+        }
+        reader.close();
+        return s.toString();
+    }
+
+    @Test
+    public void writerTest() throws IOException {
+        HuffmanWriter writer = new HuffmanWriter(huffman, bytes);
+        writer.write("asda");
+        writer.close();
+        assertArrayEquals(new byte[] {0x70, 6}, bytes.toByteArray());
+    }
+
+    @Test
+    public void emptyTest() throws IOException {
+        new HuffmanWriter(huffman, bytes).close();
+        assertArrayEquals(new byte[] {0}, bytes.toByteArray());
+        assertEquals("", readAll(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    @Test
+    public void roundTripTest() throws IOException {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            input.append("asd".charAt(i * 7 % 3 == 0 ? i % 3 : 0));
+        }
+        HuffmanWriter writer = new HuffmanWriter(huffman, bytes);
+        writer.write(input.toString());
+        writer.close();
+        assertEquals(huffman.compressToBytes(input).bitLength(), 8L * (bytes.size() - 2)
+                + bytes.toByteArray()[bytes.size() - 1]);
+        assertEquals(input.toString(), readAll(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    @Test
+    public void trickleTest() throws IOException {
+        HuffmanWriter writer = new HuffmanWriter(huffman, bytes);
+        writer.write("asdasdaaaddsa");
+        writer.close();
+        InputStream trickle = new ByteArrayInputStream(bytes.toByteArray()) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+        assertEquals("asdasdaaaddsa", readAll(trickle));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void invalidWriteTest() throws IOException {
+        new HuffmanWriter(huffman, bytes).write('q');
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void missingTrailerTest() throws IOException {
+        readAll(new ByteArrayInputStream(new byte[] {0x70}));
+    }
+}
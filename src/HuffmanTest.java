@@ -1,5 +1,6 @@
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
 import java.util.HashMap;
 
 import org.junit.Before;
@@ -138,4 +139,328 @@ public class HuffmanTest {
         huffman = new Huffman("asaasd");
         assertEquals(1.5, huffman.expectedEncodingLength(), 0.01);
     }
+    
+    @Test
+    public void compressToBytesTest() {
+        huffman = new Huffman("asaasd");
+        PackedBits bits = huffman.compressToBytes("asda");
+        assertEquals(6, bits.bitLength());
+        assertEquals(1, bits.bytes().length);
+        assertEquals((byte) 0x70, bits.bytes()[0]);
+        assertEquals("asda", huffman.decompress(bits.bytes(), bits.bitLength()));
+    }
+    
+    @Test (expected = IllegalArgumentException.class)
+    public void invalidCompressToBytesTest() {
+        huffman = new Huffman("asaasd");
+        huffman.compressToBytes("asd" + '\u0000');
+    }
+    
+    @Test (expected = IllegalArgumentException.class)
+    public void invalidBytesDecompressTest() {
+        huffman = new Huffman("asaasd");
+        huffman.decompress(new byte[] {(byte) 0xE0}, 3);
+    }
+    
+    @Test
+    public void longCodeDecompressTest() {
+        int freq = 1;
+        for (char c = 'a'; c <= 'p'; c++) {
+            asd.put(c, freq);
+            freq *= 2;
+        }
+        huffman = new Huffman(asd);
+        assertEquals(15, huffman.map.get('a').length());
+        String input = "abcdefghijklmnopapa";
+        assertEquals(input, huffman.decompress(huffman.compress(input)));
+    }
+    
+    @Test
+    public void canonicalTest() {
+        asd.put('a', 3);
+        asd.put('s', 2);
+        asd.put('d', 1);
+        huffman = new Huffman(asd, true);
+        assertEquals("0", huffman.map.get('a'));
+        assertEquals("10", huffman.map.get('d'));
+        assertEquals("11", huffman.map.get('s'));
+        Huffman copy = Huffman.fromHeader(huffman.header());
+        assertEquals("011100", copy.compress("asda"));
+        assertEquals("asda", copy.decompress(huffman.compress("asda")));
+    }
+    
+    @Test (expected = IllegalStateException.class)
+    public void notCanonicalHeaderTest() {
+        huffman = new Huffman("asaasd");
+        huffman.header();
+    }
+    
+    @Test (expected = IllegalArgumentException.class)
+    public void invalidHeaderTest() {
+        Huffman.fromHeader(new byte[] {3, 0, 1, 0, 1, 0, 1});
+    }
+    
+    @Test
+    public void compressParallelTest() {
+        huffman = new Huffman("asaasd");
+        PackedBlocks blocks = huffman.compressParallel("asdaasd", 3);
+        assertEquals(3, blocks.blockCount());
+        assertEquals(0, blocks.blockStart(0));
+        assertEquals(5, blocks.blockEnd(0));
+        assertEquals(8, blocks.blockStart(1));
+        assertEquals(16, blocks.blockStart(2));
+        assertEquals(18, blocks.bits().bitLength());
+        assertEquals("asdaasd", huffman.decompressParallel(blocks));
+        assertEquals("", huffman.decompressParallel(huffman.compressParallel("", 3)));
+    }
+    
+    @Test
+    public void blocksToBytesTest() {
+        huffman = new Huffman("asaasd");
+        PackedBlocks blocks = huffman.compressParallel("asdaasd", 3);
+        PackedBlocks copy = PackedBlocks.fromBytes(blocks.toBytes());
+        assertEquals(3, copy.blockCount());
+        assertEquals(3, copy.blockSize());
+        assertEquals(7, copy.length());
+        assertEquals(8, copy.blockStart(1));
+        assertEquals(18, copy.bits().bitLength());
+        assertEquals("asdaasd", huffman.decompressParallel(copy));
+        PackedBlocks empty = PackedBlocks.fromBytes(huffman.compressParallel("", 3).toBytes());
+        assertEquals("", huffman.decompressParallel(empty));
+    }
+    
+    @Test (expected = IllegalArgumentException.class)
+    public void truncatedBlocksTest() {
+        huffman = new Huffman("asaasd");
+        byte[] bytes = huffman.compressParallel("asdaasd", 3).toBytes();
+        PackedBlocks.fromBytes(Arrays.copyOf(bytes, bytes.length - 1));
+    }
+    
+    @Test
+    public void decompressRangeTest() {
+        huffman = new Huffman("asaasd");
+        PackedBlocks blocks = huffman.compressIndexed("asdaasd", 3);
+        assertEquals("01110001110", blocks.bits().toBitString());
+        assertEquals(3, blocks.blockCount());
+        assertEquals(5, blocks.blockStart(1));
+        assertEquals(5, blocks.blockEnd(0));
+        assertEquals("daas", huffman.decompressRange(blocks, 2, 4));
+        assertEquals("d", huffman.decompressRange(blocks, 6, 1));
+        assertEquals("", huffman.decompressRange(blocks, 7, 0));
+        assertEquals("aasd", huffman.decompressRange(huffman.compressParallel("asdaasd", 2), 3, 4));
+    }
+    
+    @Test
+    public void interleavedTest() {
+        huffman = new Huffman("asaasd");
+        byte[] frame = huffman.compressInterleaved("asdaasd");
+        assertArrayEquals(new byte[] {7, 1, 1, 1, 0x00, (byte) 0xC0, (byte) 0x80, 0x38}, frame);
+        assertEquals("asdaasd", huffman.decompressInterleaved(frame));
+        assertEquals("", huffman.decompressInterleaved(huffman.compressInterleaved("")));
+        assertEquals("sa", huffman.decompressInterleaved(huffman.compressInterleaved("sa")));
+        StringBuilder s = new StringBuilder();
+        for (int i = 0; i < 10001; i++) {
+            s.append("asd".charAt(i * i % 7 % 3));
+        }
+        String text = s.toString();
+        assertEquals(text, huffman.decompressInterleaved(huffman.compressInterleaved(text)));
+    }
+    
+    @Test (expected = IllegalArgumentException.class)
+    public void truncatedInterleavedTest() {
+        huffman = new Huffman("asaasd");
+        byte[] frame = huffman.compressInterleaved("asdaasd");
+        huffman.decompressInterleaved(Arrays.copyOf(frame, frame.length - 1));
+    }
+    
+    @Test (expected = IllegalArgumentException.class)
+    public void trailingInterleavedTest() {
+        huffman = new Huffman("asaasd");
+        byte[] frame = huffman.compressInterleaved("asdaasd");
+        huffman.decompressInterleaved(Arrays.copyOf(frame, frame.length + 1));
+    }
+    
+    @Test
+    public void storedIndexTest() {
+        huffman = new Huffman("asaasd");
+        byte[] stored = huffman.compressIndexed("asdaasd", 3).toBytes();
+        PackedBlocks blocks = PackedBlocks.fromBytes(stored);
+        assertEquals(5, blocks.blockStart(1));
+        assertEquals("daas", huffman.decompressRange(blocks, 2, 4));
+        assertEquals("d", huffman.decompressRange(blocks, 6, 1));
+        CodecMetrics.Snapshot metrics = huffman.metrics().snapshot();
+        assertEquals(5, metrics.decompressedChars());
+        assertEquals(11, metrics.decompressedBits());
+    }
+    
+    @Test (expected = IllegalArgumentException.class)
+    public void invalidRangeTest() {
+        huffman = new Huffman("asaasd");
+        huffman.decompressRange(huffman.compressIndexed("asda", 2), 3, 2);
+    }
+    
+    @Test
+    public void fromFrequenciesTest() {
+        asd.put('a', 3);
+        asd.put('s', 2);
+        asd.put('d', 1);
+        huffman = Huffman.fromFrequencies(asd);
+        assertEquals("0", huffman.map.get('a'));
+        assertEquals("10", huffman.map.get('d'));
+        assertEquals("11", huffman.map.get('s'));
+        assertEquals(1.5, huffman.expectedEncodingLength(), 0.01);
+        assertEquals("asda", huffman.decompress(huffman.compress("asda")));
+    }
+    
+    @Test
+    public void fromSortedCountsTest() {
+        huffman = Huffman.fromSortedCounts(new char[] {'d', 's', 'a'}, new int[] {1, 2, 3});
+        assertEquals("011100", huffman.compress("asda"));
+        assertEquals(1.5, huffman.expectedEncodingLength(), 0.01);
+    }
+    
+    @Test (expected = IllegalArgumentException.class)
+    public void unsortedCountsTest() {
+        Huffman.fromSortedCounts(new char[] {'d', 's', 'a'}, new int[] {1, 3, 2});
+    }
+    
+    @Test (expected = IllegalArgumentException.class)
+    public void nonPositiveFromFrequenciesTest() {
+        asd.put('s', 1);
+        asd.put('a', 0);
+        Huffman.fromFrequencies(asd);
+    }
+    
+    @Test
+    public void lengthLimitedTest() {
+        int[] fib = {1, 1, 2, 3, 5, 8};
+        for (int i = 0; i < fib.length; i++) {
+            asd.put((char) ('a' + i), fib[i]);
+        }
+        assertEquals(2.25, Huffman.fromFrequencies(asd).expectedEncodingLength(), 0.01);
+        huffman = Huffman.lengthLimited(asd, 3);
+        for (String code : huffman.map.values()) {
+            assertTrue(code.length() <= 3);
+        }
+        assertEquals(2.35, huffman.expectedEncodingLength(), 0.01);
+        assertEquals("fedcbaff", huffman.decompress(huffman.compress("fedcbaff")));
+        assertEquals(2.25, Huffman.lengthLimited(asd, 5).expectedEncodingLength(), 0.01);
+    }
+    
+    @Test (expected = IllegalArgumentException.class)
+    public void lengthLimitTooSmallTest() {
+        asd.put('a', 3);
+        asd.put('s', 2);
+        asd.put('d', 1);
+        Huffman.lengthLimited(asd, 1);
+    }
+    
+    @Test
+    public void largeSeedTest() {
+        StringBuilder seed = new StringBuilder();
+        for (int i = 0; i < 3 * Histograms.PARALLEL_THRESHOLD; i++) {
+            seed.append(i % 4 == 0 ? '\uffff' : (char) ('a' + i % 3));
+        }
+        huffman = new Huffman(seed.toString());
+        int n = seed.length();
+        assertEquals(4, huffman.freqMap.size());
+        assertEquals(n / 4, (int) huffman.freqMap.get('\uffff'));
+        int total = 0;
+        for (int count : huffman.freqMap.values()) {
+            total += count;
+        }
+        assertEquals(n, total);
+        int a = 0;
+        for (int i = 0; i < n; i++) {
+            a += seed.charAt(i) == 'a' ? 1 : 0;
+        }
+        assertEquals(a, (int) huffman.freqMap.get('a'));
+    }
+    
+    @Test
+    public void repeatedCompressionRatioTest() {
+        huffman = new Huffman("asaasd");
+        huffman.compress("asd");
+        huffman.compress("aa");
+        huffman.compress("ssss");
+        assertEquals(15 / 144.0, huffman.compressionRatio(), 0.001);
+        assertEquals(15 / 144.0, huffman.compressionRatio(), 0.001);
+    }
+    
+    @Test
+    public void metricsTest() {
+        huffman = new Huffman("asaasd");
+        huffman.compress("asd");
+        huffman.compressToBytes("aaaaasss");
+        huffman.decompress("01110");
+        CodecMetrics.Snapshot snapshot = huffman.metrics().snapshot();
+        assertEquals(2, snapshot.compressCalls());
+        assertEquals(11, snapshot.compressedChars());
+        assertEquals(16, snapshot.compressedBits());
+        assertEquals(1, snapshot.decompressCalls());
+        assertEquals(3, snapshot.decompressedChars());
+        assertEquals(5, snapshot.decompressedBits());
+        assertEquals(6, (long) snapshot.symbolCounts().get((int) 'a'));
+        assertEquals(4, (long) snapshot.symbolCounts().get((int) 's'));
+        assertEquals(1, (long) snapshot.symbolCounts().get((int) 'd'));
+        assertTrue(snapshot.compressLatency(0.5) > 0);
+        assertTrue(snapshot.compressLatency(1) >= snapshot.compressLatency(0.5));
+        assertEquals(0, new Huffman("asaasd").metrics().snapshot().decompressLatency(0.99));
+        huffman.compress("a");
+        assertEquals(2, snapshot.compressCalls());
+    }
+    
+    @Test
+    public void failedCompressMetricsTest() {
+        huffman = new Huffman("asaasd");
+        for (String input : new String[] {"ax", "asdaasdx"}) {
+            try {
+                huffman.compressToBytes(input);
+                fail();
+            } catch (IllegalArgumentException e) {
+                // nothing compressed, so no symbols counted
+            }
+        }
+        for (long count : huffman.metrics().snapshot().symbolCounts().values()) {
+            assertEquals(0, count);
+        }
+        huffman.compressToBytes("asdaasd");
+        huffman.compressToBytes("sa");
+        assertEquals(4, (long) huffman.metrics().snapshot().symbolCounts().get((int) 'a'));
+        assertEquals(3, (long) huffman.metrics().snapshot().symbolCounts().get((int) 's'));
+    }
+    
+    @Test
+    public void failedBlocksMetricsTest() {
+        huffman = new Huffman("asaasd");
+        Runnable[] calls = {
+            () -> huffman.compressParallel("asasdx", 2),
+            () -> huffman.compressIndexed("asasdx", 2),
+            () -> huffman.compressInterleaved("asasdaasdx"),
+        };
+        for (Runnable call : calls) {
+            try {
+                call.run();
+                fail();
+            } catch (IllegalArgumentException e) {
+                // the first blocks compressed, but the call failed, so no symbols counted
+            }
+            for (long count : huffman.metrics().snapshot().symbolCounts().values()) {
+                assertEquals(0, count);
+            }
+        }
+        assertEquals(0, huffman.metrics().snapshot().compressCalls());
+        huffman.compressParallel("asasda", 2);
+        huffman.compressIndexed("asasda", 2);
+        huffman.compressInterleaved("asasdaasda");
+        assertEquals(11, (long) huffman.metrics().snapshot().symbolCounts().get((int) 'a'));
+        assertEquals(7, (long) huffman.metrics().snapshot().symbolCounts().get((int) 's'));
+    }
+    
+    @Test
+    public void nullCharacterTest() {
+        huffman = new Huffman("\u0000\u0000\u0000ab");
+        assertEquals(1, huffman.map.get('\u0000').length());
+        assertEquals("a\u0000b\u0000", huffman.decompress(huffman.compress("a\u0000b\u0000")));
+    }
 }
@@ -118,7 +118,7 @@ public class HuffmanVisualizer {
     private static void recursiveDraw(float currX, float currY, 
             float widthPerNode, float heightPerNode, int totalWidth, int totalHeight,
             HuffmanTreeNode currNode, int parentId, int parentRelation) {
-        if (currNode.character == '\u0000') {
+        if (currNode.left != null || currNode.right != null) {
             int parentCounter = nodeCounter;
             Node node = huffmanTree.addNode(Integer.toString(nodeCounter));
             node.addAttribute("x", currX);
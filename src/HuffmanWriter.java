@@ -0,0 +1,121 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * A {@link Writer} that compresses characters with the code table of a {@link Huffman} instance
+ * and writes the packed bits to an {@link OutputStream}. Characters are encoded as they arrive
+ * into a fixed-size buffer, so memory use does not depend on how much is written. The output can
+ * be read back with a {@link HuffmanReader} over an instance with the same code words.
+ */
+public class HuffmanWriter extends Writer {
+
+    static final int BUFFER_SIZE = 8192;
+
+    private final SymbolCoder table;
+    private final OutputStream out;
+    private final BitWriter bits;
+    private boolean closed;
+
+    /**
+     * @param huffman the codec whose code words to use
+     * @param out     the stream to write compressed bytes to
+     * @throws IllegalArgumentException if huffman or out is null
+     */
+    public HuffmanWriter(Huffman huffman, OutputStream out) {
+        this(huffman == null ? null : huffman.codeTable, out);
+    }
+
+    /**
+     * Streams through an adaptive model instead of a fixed code table. The model must be fresh,
+     * and used by nothing else, on both the writing and the reading side.
+     *
+     * @param adaptive the model to encode with
+     * @param out      the stream to write compressed bytes to
+     * @throws IllegalArgumentException if adaptive or out is null
+     */
+    public HuffmanWriter(AdaptiveHuffman adaptive, OutputStream out) {
+        this((SymbolCoder) adaptive, out);
+    }
+
+    private HuffmanWriter(SymbolCoder table, OutputStream out) {
+        if (table == null || out == null) {
+            throw new IllegalArgumentException("null argument");
+        }
+        this.table = table;
+        this.out = out;
+        this.bits = new BitWriter(out, BUFFER_SIZE);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException if a character is not compressible
+     */
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        ensureOpen();
+        try {
+            for (int i = off; i < off + len; i++) {
+                this.table.encode(cbuf[i], this.bits);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException if the character is not compressible
+     */
+    @Override
+    public void write(int c) throws IOException {
+        ensureOpen();
+        try {
+            this.table.encode((char) c, this.bits);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Writes all complete bytes to the underlying stream and flushes it. Up to seven bits of a
+     * partial byte are held back until more characters or {@link #close()} complete it.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        try {
+            this.bits.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        this.out.flush();
+    }
+
+    /**
+     * Pads and writes the final partial byte and the trailer, then closes the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        try {
+            this.bits.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            this.out.close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (this.closed) {
+            throw new IOException("stream closed");
+        }
+    }
+}
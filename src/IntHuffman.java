@@ -0,0 +1,271 @@
+import java.util.Arrays;
+
+/**
+ * A Huffman codec over int symbols, for alphabets too large or too sparse for chars: Unicode code
+ * points, dictionary token IDs and the like, with 10^5 to 10^6 distinct symbols. Nothing is
+ * boxed and no tree of objects is built: code lengths are computed in place over a primitive
+ * array ({@link CodeLengths}), code words are assigned canonically, and the {@link CodeTable}
+ * indexes sparse alphabets by open addressing. Construction takes O(n log n) time and O(n) memory
+ * for n distinct symbols, whatever their values.
+ * <p>
+ * Symbols range from 0 to {@link DecodeTable#MAX_SYMBOL}, which covers every code point.
+ */
+public class IntHuffman {
+
+    /** Seeds whose largest symbol is below this many times their length are counted densely. */
+    static final int DENSE_RATIO = 2;
+
+    final CodeTable codeTable;
+    /** The frequency of each symbol of {@link #codeTable}, in table order, or null. */
+    private final long[] frequencies;
+
+    private IntHuffman(CodeTable table, long[] frequencies) {
+        this.codeTable = table;
+        this.frequencies = frequencies;
+    }
+
+    /**
+     * Constructs a codec from the symbol frequencies of a seed.
+     *
+     * @param seed the symbols from which to deduce the alphabet and frequencies
+     * @throws IllegalArgumentException if the seed is null, has fewer than 2 distinct symbols, or
+     *                                  has a symbol out of range
+     */
+    public IntHuffman(int[] seed) {
+        this(histogram(seed));
+    }
+
+    /**
+     * @param histogram the distinct symbols, and the frequency of each
+     */
+    private IntHuffman(int[][] histogram) {
+        int[] symbols = histogram[0];
+        int[] freqs = histogram[1];
+        if (symbols.length < 2) {
+            throw new IllegalArgumentException("alphabet fewer than 2 symbols");
+        }
+        for (int i = 0; i < symbols.length; i++) {
+            checkSymbol(symbols[i]);
+            if (freqs[i] <= 0) {
+                throw new IllegalArgumentException("alphabet has non positive frequencies");
+            }
+        }
+        this.codeTable = CodeTable.canonical(symbols, CodeLengths.of(freqs));
+        // the table is in canonical order, so look each frequency up by symbol
+        long[] order = new long[symbols.length];
+        for (int i = 0; i < symbols.length; i++) {
+            order[i] = ((long) symbols[i] << 32) | freqs[i];
+        }
+        Arrays.sort(order);
+        this.frequencies = new long[symbols.length];
+        for (int i = 0; i < symbols.length; i++) {
+            int at = Arrays.binarySearch(order, (long) this.codeTable.symbols[i] << 32);
+            this.frequencies[i] = order[-at - 1] & 0xFFFFFFFFL;
+        }
+    }
+
+    /**
+     * Constructs a codec from parallel arrays of symbols and their frequencies.
+     *
+     * @param symbols     the distinct symbols of the alphabet
+     * @param frequencies the frequency of each symbol
+     * @return a codec for the alphabet
+     * @throws IllegalArgumentException if either array is null, they differ in length, there are
+     *                                  fewer than 2 symbols, a symbol is repeated or out of range,
+     *                                  or a frequency is not positive
+     */
+    public static IntHuffman fromFrequencies(int[] symbols, int[] frequencies) {
+        if (symbols == null || frequencies == null || symbols.length != frequencies.length) {
+            throw new IllegalArgumentException("invalid alphabet");
+        }
+        return new IntHuffman(new int[][] {symbols.clone(), frequencies.clone()});
+    }
+
+    private static void checkSymbol(int symbol) {
+        if (symbol < 0 || symbol > DecodeTable.MAX_SYMBOL) {
+            throw new IllegalArgumentException("symbol out of range");
+        }
+    }
+
+    /**
+     * Counts the distinct symbols of a seed, into a dense array if the symbols are small enough
+     * and by sorting a copy of the seed otherwise.
+     *
+     * @return the distinct symbols in increasing order, and their frequencies
+     */
+    static int[][] histogram(int[] seed) {
+        if (seed == null) {
+            throw new IllegalArgumentException("null seed");
+        }
+        int max = -1;
+        for (int symbol : seed) {
+            checkSymbol(symbol);
+            max = Math.max(max, symbol);
+        }
+        int[] symbols;
+        int[] freqs;
+        if (max < Math.max(1 << 16, (long) DENSE_RATIO * seed.length)) {
+            int[] counts = new int[max + 1];
+            int distinct = 0;
+            for (int symbol : seed) {
+                if (counts[symbol]++ == 0) {
+                    distinct++;
+                }
+            }
+            symbols = new int[distinct];
+            freqs = new int[distinct];
+            int i = 0;
+            for (int symbol = 0; symbol <= max; symbol++) {
+                if (counts[symbol] > 0) {
+                    symbols[i] = symbol;
+                    freqs[i++] = counts[symbol];
+                }
+            }
+        } else {
+            int[] sorted = seed.clone();
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    distinct++;
+                }
+            }
+            symbols = new int[distinct];
+            freqs = new int[distinct];
+            int d = -1;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    symbols[++d] = sorted[i];
+                }
+                freqs[d]++;
+            }
+        }
+        return new int[][] {symbols, freqs};
+    }
+
+    /**
+     * Constructs a codec from a header written by {@link #header()}.
+     *
+     * @param header the encoded code lengths
+     * @return a codec with the same code words as the one that wrote the header
+     * @throws IllegalArgumentException if the header is null, corrupt, describes fewer than 2
+     *                                  symbols, or describes a symbol out of range
+     */
+    public static IntHuffman fromHeader(byte[] header) {
+        CodeTable table = CodeTable.fromHeader(header);
+        if (table.size() < 2) {
+            throw new IllegalArgumentException("alphabet fewer than 2 symbols");
+        }
+        for (int symbol : table.symbols) {
+            checkSymbol(symbol);
+        }
+        return new IntHuffman(table, null);
+    }
+
+    /**
+     * @return the encoded code lengths, from which {@link #fromHeader(byte[])} rebuilds an
+     *         identical codec
+     */
+    public byte[] header() {
+        return this.codeTable.toHeader();
+    }
+
+    /**
+     * Compresses symbols into packed bits.
+     *
+     * @param input the symbols to compress, can be empty
+     * @return the binary encoding of the input
+     * @throws IllegalArgumentException if the input is null or contains symbols that are not in
+     *                                  the alphabet
+     */
+    public PackedBits compress(int[] input) {
+        if (input == null) {
+            throw new IllegalArgumentException("null input");
+        }
+        return compress(input, 0, input.length);
+    }
+
+    /**
+     * Compresses a range of symbols into packed bits.
+     *
+     * @param input the symbols to compress
+     * @param from  the first symbol to compress, inclusive
+     * @param to    the last symbol to compress, exclusive
+     * @return the binary encoding of the range
+     * @throws IllegalArgumentException if the input is null, the range is outside of it, or it
+     *                                  contains symbols that are not in the alphabet
+     */
+    public PackedBits compress(int[] input, int from, int to) {
+        if (input == null) {
+            throw new IllegalArgumentException("null input");
+        }
+        if (from < 0 || from > to || to > input.length) {
+            throw new IllegalArgumentException("invalid range");
+        }
+        BitWriter out = new BitWriter(to - from + 1);
+        for (int i = from; i < to; i++) {
+            this.codeTable.encode(input[i], out);
+        }
+        return out.toPackedBits();
+    }
+
+    /**
+     * Decompresses packed bits, as produced by {@link #compress(int[])}.
+     *
+     * @param input     the packed bits to decompress
+     * @param bitLength the number of valid bits in input
+     * @return the decoded symbols
+     * @throws IllegalArgumentException if the input is null, bitLength does not fit in the input,
+     *                                  or the bits contain a sequence that is not decodable
+     */
+    public int[] decompress(byte[] input, long bitLength) {
+        if (input == null) {
+            throw new IllegalArgumentException("null input");
+        }
+        BitReader in = new BitReader(input, bitLength);
+        DecodeTable decoder = this.codeTable.decoder();
+        int[] out = new int[Math.max(16, input.length)];
+        int n = 0;
+        while (in.remaining() > 0) {
+            if (n == out.length) {
+                out = Arrays.copyOf(out, n * 2);
+            }
+            out[n++] = decoder.read(in);
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /**
+     * @return the number of symbols in the alphabet
+     */
+    public int size() {
+        return this.codeTable.size();
+    }
+
+    /**
+     * @param symbol the symbol to look up
+     * @return the length of its code word, or 0 if it is not in the alphabet
+     */
+    public int codeLength(int symbol) {
+        return this.codeTable.length(symbol);
+    }
+
+    /**
+     * Computes the expected number of bits per symbol of the seed.
+     *
+     * @return the frequency-weighted mean code length
+     * @throws IllegalStateException if this codec was built from a header and has no frequencies
+     */
+    public double expectedEncodingLength() {
+        if (this.frequencies == null) {
+            throw new IllegalStateException("no frequencies");
+        }
+        long bits = 0;
+        long total = 0;
+        for (int i = 0; i < this.frequencies.length; i++) {
+            bits += this.frequencies[i] * this.codeTable.lengths[i];
+            total += this.frequencies[i];
+        }
+        return (double) bits / total;
+    }
+}
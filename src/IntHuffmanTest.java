@@ -0,0 +1,100 @@
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class IntHuffmanTest {
+
+    private IntHuffman huffman;
+
+    @Before
+    public void setUp() {
+        huffman = new IntHuffman(new int[] {5, 5, 5, 1000000, 1000000, 0});
+    }
+
+    @Test
+    public void compressTest() {
+        assertEquals("011100", huffman.compress(new int[] {5, 1000000, 0, 5}).toBitString());
+        assertEquals(3, huffman.size());
+        assertEquals(1, huffman.codeLength(5));
+        assertEquals(2, huffman.codeLength(0));
+        assertEquals(0, huffman.codeLength(6));
+        assertEquals(1.5, huffman.expectedEncodingLength(), 0.01);
+    }
+
+    @Test
+    public void roundTripTest() {
+        int[] input = {0, 1000000, 5, 0, 5};
+        PackedBits bits = huffman.compress(input);
+        assertArrayEquals(input, huffman.decompress(bits.bytes(), bits.bitLength()));
+        assertEquals("110", huffman.compress(input, 1, 3).toBitString());
+    }
+
+    @Test
+    public void codePointsTest() {
+        int[] codePoints = "a\ud83d\ude00b\ud83d\ude00\u0000".codePoints().toArray();
+        IntHuffman codec = new IntHuffman(codePoints);
+        PackedBits bits = codec.compress(codePoints);
+        assertArrayEquals(codePoints, codec.decompress(bits.bytes(), bits.bitLength()));
+        assertEquals(2, codec.codeLength(0x1F600));
+    }
+
+    @Test
+    public void largeSparseAlphabetTest() {
+        Random random = new Random(22);
+        int distinct = 300000;
+        int[] symbols = new int[distinct];
+        int[] freqs = new int[distinct];
+        for (int i = 0; i < distinct; i++) {
+            symbols[i] = i * 97 + random.nextInt(97);
+            freqs[i] = 1 + (int) (100000.0 / (i + 1));
+        }
+        IntHuffman codec = IntHuffman.fromFrequencies(symbols, freqs);
+        assertEquals(distinct, codec.size());
+        int[] input = new int[100000];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = symbols[random.nextInt(100) == 0 ? random.nextInt(distinct) : i % 50];
+        }
+        PackedBits bits = codec.compress(input);
+        assertArrayEquals(input, codec.decompress(bits.bytes(), bits.bitLength()));
+        IntHuffman copy = IntHuffman.fromHeader(codec.header());
+        assertArrayEquals(input, copy.decompress(bits.bytes(), bits.bitLength()));
+        assertEquals(codec.codeLength(symbols[12345]), copy.codeLength(symbols[12345]));
+        assertTrue(codec.expectedEncodingLength() < 18);
+    }
+
+    @Test
+    public void sortedHistogramTest() {
+        int[] seed = {1 << 24, 3, 1 << 24, 3, 3, 7};
+        int[][] histogram = IntHuffman.histogram(seed);
+        assertArrayEquals(new int[] {3, 7, 1 << 24}, histogram[0]);
+        assertArrayEquals(new int[] {3, 1, 2}, histogram[1]);
+    }
+
+    @Test (expected = IllegalStateException.class)
+    public void headerHasNoFrequenciesTest() {
+        IntHuffman.fromHeader(huffman.header()).expectedEncodingLength();
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void negativeSymbolTest() {
+        new IntHuffman(new int[] {1, -1});
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void singleSymbolTest() {
+        new IntHuffman(new int[] {4, 4});
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void duplicateSymbolTest() {
+        IntHuffman.fromFrequencies(new int[] {4, 4, 5}, new int[] {1, 2, 3});
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void notCompressibleTest() {
+        huffman.compress(new int[] {6});
+    }
+}
@@ -0,0 +1,162 @@
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class IntKeyMinHeapTest {
+
+    IntKeyMinHeap<Integer> empty;
+
+    @Before
+    public void setUp() {
+        empty = new IntKeyMinHeap<>(2);
+    }
+
+    @Test
+    public void sizeTest() {
+        assertEquals(0, empty.size());
+        empty.addInt(0, 1);
+        assertEquals(1, empty.size());
+        assertFalse(empty.isEmpty());
+    }
+
+    @Test
+    public void containsValueTest() {
+        assertFalse(empty.containsValue(1));
+        empty.addInt(0, 1);
+        empty.addInt(0, null);
+        assertFalse(empty.containsValue(0));
+        assertTrue(empty.containsValue(1));
+        assertTrue(empty.containsValue(null));
+    }
+
+    @Test
+    public void addToNotEmptyTest() {
+        empty.addInt(30, 0);
+        empty.addInt(5, 1);
+        empty.addInt(2, 2);
+        empty.addInt(1, 3);
+        empty.addInt(2, 4);
+
+        assertArrayEquals(new int[] {1, 2, 5, 30, 2}, Arrays.copyOf(empty.keys, 5));
+        assertEquals(3, empty.index.get(0));
+        assertEquals(2, empty.index.get(1));
+        assertEquals(1, empty.index.get(2));
+        assertEquals(0, empty.index.get(3));
+        assertEquals(4, empty.index.get(4));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void addNullKeyTest() {
+        empty.add(null, 0);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void addDupeValueTest() {
+        empty.addInt(1, 5);
+        empty.addInt(2, 5);
+    }
+
+    @Test
+    public void decreaseKeyMultiTest() {
+        empty.addInt(30, 0);
+        empty.addInt(5, 1);
+        empty.addInt(2, 2);
+        empty.addInt(1, 3);
+        empty.addInt(2, 4);
+
+        empty.decreaseKeyInt(0, 0);
+
+        assertArrayEquals(new int[] {0, 1, 5, 2, 2}, Arrays.copyOf(empty.keys, 5));
+        assertEquals(Integer.valueOf(0), empty.peek().value);
+    }
+
+    @Test (expected = NoSuchElementException.class)
+    public void invalidValueDecreaseKeyTest() {
+        empty.addInt(0, 1);
+        empty.decreaseKeyInt(0, 2);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void nullKeyDecreaseKeyTest() {
+        empty.addInt(0, 1);
+        empty.decreaseKey(1, null);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void largerKeyDecreaseKeyTest() {
+        empty.addInt(0, 1);
+        empty.decreaseKeyInt(1, 2);
+    }
+
+    @Test (expected = NoSuchElementException.class)
+    public void extractMinEmptyTest() {
+        empty.extractMin();
+    }
+
+    @Test
+    public void extractMinMultiTest() {
+        empty.addInt(30, 0);
+        empty.addInt(5, 1);
+        empty.addInt(2, 2);
+        empty.addInt(1, 3);
+        empty.addInt(2, 4);
+
+        BinaryMinHeap.Entry<Integer, Integer> min = empty.extractMin();
+        assertEquals(Integer.valueOf(1), min.key);
+        assertEquals(Integer.valueOf(3), min.value);
+        assertEquals(2, empty.peekKey());
+        assertFalse(empty.containsValue(3));
+        assertEquals(4, empty.values().size());
+    }
+
+    @Test
+    public void matchesBinaryMinHeapImplTest() {
+        Random r = new Random(10);
+        BinaryMinHeapImpl<Integer, Integer> reference = new BinaryMinHeapImpl<>();
+        for (int i = 0; i < 5000; i++) {
+            int op = r.nextInt(4);
+            if (op < 2) {
+                int key = r.nextInt(1000);
+                empty.addInt(key, i);
+                reference.add(key, i);
+            } else if (op == 2 && !reference.isEmpty()) {
+                Integer v = reference.values().iterator().next();
+                int key = reference.revHashMap.get(v) - r.nextInt(50);
+                empty.decreaseKeyInt(v, key);
+                reference.decreaseKey(v, key);
+            } else if (!reference.isEmpty()) {
+                assertEquals(reference.peek().key.intValue(), empty.peekKey());
+                int key = empty.peekKey();
+                Integer v = empty.extractMinValue();
+                reference.decreaseKey(v, Integer.MIN_VALUE);
+                reference.extractMin();
+                assertFalse(reference.containsValue(v));
+                assertTrue(key <= (reference.isEmpty() ? key : reference.peek().key));
+            }
+            assertEquals(reference.size(), empty.size());
+        }
+        assertEquals(reference.values(), empty.values());
+    }
+
+    @Test
+    public void addAllTest() {
+        List<BinaryMinHeap.Entry<Integer, Integer>> entries = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            entries.add(new BinaryMinHeap.Entry<>((i * 37) % 1000, i));
+        }
+        empty.addAll(entries);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(empty.containsValue(i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.valueOf(i), empty.extractMin().key);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A binary min-heap with primitive {@code long} keys. Keys and values live in parallel arrays and
+ * the position of each value is tracked by a {@link ValueIndex}, so sifting moves array slots in
+ * place without allocating entries or boxing indices. Sifts are iterative and move a hole rather
+ * than swapping pairs.
+ * <p>
+ * Besides the {@link BinaryMinHeap} methods, which box their keys and allocate an {@link Entry}
+ * where the interface requires one, the primitive variants {@link #addLong(long, Object)},
+ * {@link #decreaseKeyLong(Object, long)}, {@link #peekKey()}, {@link #peekValue()} and
+ * {@link #extractMinValue()} never allocate once the arrays have grown to size.
+ *
+ * @param <V> {@inheritDoc}
+ */
+public class LongKeyMinHeap<V> implements BinaryMinHeap<Long, V> {
+
+    long[] keys;
+    Object[] values;
+    int size;
+    ValueIndex<V> index;
+
+    public LongKeyMinHeap() {
+        this(16);
+    }
+
+    /**
+     * @param capacity the number of elements to allocate room for up front
+     */
+    public LongKeyMinHeap(int capacity) {
+        this.keys = new long[Math.max(capacity, 2)];
+        this.values = new Object[Math.max(capacity, 2)];
+        this.index = new ValueIndex<V>(capacity);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsValue(V value) {
+        return this.index.get(value) >= 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void add(Long key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("null key");
+        }
+        addLong(key.longValue(), value);
+    }
+
+    /**
+     * Runtime: O(log n)
+     *
+     * @param key   the priority key to associate with the value
+     * @param value the value to insert into the heap, may be null
+     * @throws IllegalArgumentException if value is already in the min-heap
+     */
+    public void addLong(long key, V value) {
+        if (this.index.get(value) >= 0) {
+            throw new IllegalArgumentException("value already in heap");
+        }
+        if (this.size == this.keys.length) {
+            this.keys = Arrays.copyOf(this.keys, this.size * 2);
+            this.values = Arrays.copyOf(this.values, this.size * 2);
+        }
+        siftUp(this.size++, key, value);
+    }
+
+    /**
+     * Appends the entries and restores the heap property bottom-up in O(n + m), unless the batch
+     * is small enough that sifting each entry up is cheaper. The arrays and the index are grown
+     * at most once.
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void addAll(Collection<? extends Entry<Long, V>> entries) {
+        Heaps.checkEntries(this, entries);
+        if (Heaps.addIndividually(this.size, entries.size())) {
+            for (Entry<Long, V> e : entries) {
+                add(e.key, e.value);
+            }
+            return;
+        }
+        int total = this.size + entries.size();
+        if (total > this.keys.length) {
+            this.keys = Arrays.copyOf(this.keys, total);
+            this.values = Arrays.copyOf(this.values, total);
+        }
+        this.index.reserve(total);
+        for (Entry<Long, V> e : entries) {
+            this.keys[this.size] = e.key;
+            this.values[this.size] = e.value;
+            this.index.put(e.value, this.size);
+            this.size++;
+        }
+        for (int i = (this.size >>> 1) - 1; i >= 0; i--) {
+            siftDown(i, this.keys[i], (V) this.values[i]);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void decreaseKey(V value, Long newKey) {
+        if (this.index.get(value) < 0) {
+            throw new NoSuchElementException("value does not exist");
+        }
+        if (newKey == null) {
+            throw new IllegalArgumentException("null key");
+        }
+        decreaseKeyLong(value, newKey.longValue());
+    }
+
+    /**
+     * Runtime: O(log n)
+     *
+     * @param value  the value whose associated key to update
+     * @param newKey the key to update value with
+     * @throws NoSuchElementException   if value is not in the heap
+     * @throws IllegalArgumentException if newKey > key(value)
+     */
+    public void decreaseKeyLong(V value, long newKey) {
+        int i = this.index.get(value);
+        if (i < 0) {
+            throw new NoSuchElementException("value does not exist");
+        }
+        if (newKey > this.keys[i]) {
+            throw new IllegalArgumentException("larger new key");
+        }
+        siftUp(i, newKey, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Entry<Long, V> peek() {
+        return new Entry<Long, V>(peekKey(), peekValue());
+    }
+
+    /**
+     * Runtime: O(1)
+     *
+     * @return the smallest key in the min-heap
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public long peekKey() {
+        if (this.size == 0) {
+            throw new NoSuchElementException("empty heap");
+        }
+        return this.keys[0];
+    }
+
+    /**
+     * Runtime: O(1)
+     *
+     * @return the value with the smallest key in the min-heap
+     * @throws NoSuchElementException if the heap is empty
+     */
+    @SuppressWarnings("unchecked")
+    public V peekValue() {
+        if (this.size == 0) {
+            throw new NoSuchElementException("empty heap");
+        }
+        return (V) this.values[0];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Entry<Long, V> extractMin() {
+        long key = peekKey();
+        return new Entry<Long, V>(key, extractMinValue());
+    }
+
+    /**
+     * Removes the value with the smallest key in the min-heap, without allocating an entry.
+     * <p>
+     * Runtime: O(log n)
+     *
+     * @return the value with the smallest key in the min-heap
+     * @throws NoSuchElementException if the heap is empty
+     */
+    @SuppressWarnings("unchecked")
+    public V extractMinValue() {
+        V min = peekValue();
+        this.index.remove(min);
+        int last = --this.size;
+        V moved = (V) this.values[last];
+        this.values[last] = null;
+        if (last > 0) {
+            siftDown(0, this.keys[last], moved);
+        }
+        return min;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<V> values() {
+        Set<V> set = new HashSet<V>();
+        for (int i = 0; i < this.size; i++) {
+            set.add((V) this.values[i]);
+        }
+        return set;
+    }
+
+    /**
+     * Moves the hole at {@code i} towards the root until {@code key} fits, then places it there.
+     */
+    @SuppressWarnings("unchecked")
+    void siftUp(int i, long key, V value) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (this.keys[parent] <= key) {
+                break;
+            }
+            this.keys[i] = this.keys[parent];
+            this.values[i] = this.values[parent];
+            this.index.put((V) this.values[i], i);
+            i = parent;
+        }
+        this.keys[i] = key;
+        this.values[i] = value;
+        this.index.put(value, i);
+    }
+
+    /**
+     * Moves the hole at {@code i} towards the leaves until {@code key} fits, then places it there.
+     */
+    @SuppressWarnings("unchecked")
+    void siftDown(int i, long key, V value) {
+        int half = this.size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < this.size && this.keys[child + 1] < this.keys[child]) {
+                child++;
+            }
+            if (key <= this.keys[child]) {
+                break;
+            }
+            this.keys[i] = this.keys[child];
+            this.values[i] = this.values[child];
+            this.index.put((V) this.values[i], i);
+            i = child;
+        }
+        this.keys[i] = key;
+        this.values[i] = value;
+        this.index.put(value, i);
+    }
+}
@@ -0,0 +1,40 @@
+import static org.junit.Assert.*;
+
+import java.util.NoSuchElementException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class LongKeyMinHeapTest {
+
+    LongKeyMinHeap<String> empty;
+
+    @Before
+    public void setUp() {
+        empty = new LongKeyMinHeap<>();
+    }
+
+    @Test
+    public void orderTest() {
+        empty.addLong(1L << 40, "a");
+        empty.addLong(-5L, "b");
+        empty.addLong(3L, "c");
+        empty.decreaseKeyLong("a", Long.MIN_VALUE);
+        assertEquals("a", empty.extractMinValue());
+        assertEquals(-5L, empty.peekKey());
+        assertEquals("b", empty.extractMin().value);
+        assertEquals(Long.valueOf(3), empty.extractMin().key);
+        assertTrue(empty.isEmpty());
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void addDupeValueTest() {
+        empty.addLong(1L, "a");
+        empty.addLong(2L, "a");
+    }
+
+    @Test (expected = NoSuchElementException.class)
+    public void emptyPeekTest() {
+        empty.peek();
+    }
+}
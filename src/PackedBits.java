@@ -0,0 +1,84 @@
+/**
+ * A compressed bit sequence stored eight bits to a byte, most significant bit first. The last
+ * byte is zero-padded; {@link #bitLength()} tells how many of its bits are meaningful.
+ */
+public final class PackedBits {
+
+    private final byte[] bytes;
+    private final long bitLength;
+
+    /**
+     * Wraps an existing byte array. The array is not copied.
+     *
+     * @param bytes     the packed bits
+     * @param bitLength the number of valid bits in {@code bytes}
+     * @throws IllegalArgumentException if bytes is null or bitLength does not fit in bytes
+     */
+    public PackedBits(byte[] bytes, long bitLength) {
+        if (bytes == null) {
+            throw new IllegalArgumentException("null bytes");
+        }
+        if (bitLength < 0 || bitLength > 8L * bytes.length) {
+            throw new IllegalArgumentException("invalid bit length");
+        }
+        this.bytes = bytes;
+        this.bitLength = bitLength;
+    }
+
+    /**
+     * @return the backing array, which is not copied
+     */
+    public byte[] bytes() {
+        return this.bytes;
+    }
+
+    public long bitLength() {
+        return this.bitLength;
+    }
+
+    /**
+     * @param index the bit to read
+     * @return 0 or 1
+     */
+    public int bit(long index) {
+        return (this.bytes[(int) (index >>> 3)] >>> (7 - (int) (index & 7))) & 1;
+    }
+
+    /**
+     * @return the bits as a String of ones and zeroes
+     * @throws IllegalStateException if there are too many bits to fit in a String
+     */
+    public String toBitString() {
+        if (this.bitLength > Integer.MAX_VALUE) {
+            throw new IllegalStateException("too many bits for a String");
+        }
+        char[] chars = new char[(int) this.bitLength];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('0' + bit(i));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Packs a String of ones and zeroes.
+     *
+     * @param bits the String to pack
+     * @return the packed bits
+     * @throws IllegalArgumentException if bits is null or contains characters other than 0 or 1
+     */
+    public static PackedBits fromBitString(CharSequence bits) {
+        if (bits == null) {
+            throw new IllegalArgumentException("null input");
+        }
+        byte[] bytes = new byte[(bits.length() + 7) >>> 3];
+        for (int i = 0; i < bits.length(); i++) {
+            char c = bits.charAt(i);
+            if (c == '1') {
+                bytes[i >>> 3] |= (byte) (0x80 >>> (i & 7));
+            } else if (c != '0') {
+                throw new IllegalArgumentException("not a binary string");
+            }
+        }
+        return new PackedBits(bytes, bits.length());
+    }
+}
@@ -0,0 +1,148 @@
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * Packed bits split into independently decodable blocks. Every block but the last covers
+ * {@link #blockSize()} input characters, and the offset table records the range of bits that
+ * encodes each one, so any block can be decoded without touching the ones before it.
+ * <p>
+ * Blocks from {@link Huffman#compressParallel(CharSequence, int)} each start on a byte boundary.
+ * Blocks from {@link Huffman#compressIndexed(CharSequence, int)} are sync points in a single
+ * unpadded stream, so each block ends where the next one starts.
+ * <p>
+ * {@link #toBytes()} gives a self-contained form that keeps the offset table, so stored or
+ * transmitted blocks can still be decoded in parallel or from any block.
+ */
+public final class PackedBlocks {
+
+    private final PackedBits bits;
+    private final int blockSize;
+    private final int length;
+    final long[] starts;
+    final long[] ends;
+
+    /**
+     * @param bits      the packed bits of all blocks
+     * @param blockSize the number of characters in each block but the last
+     * @param length    the total number of characters
+     * @param starts    the offset of the first bit of each block
+     * @param ends      the offset one past the last bit of each block
+     */
+    PackedBlocks(PackedBits bits, int blockSize, int length, long[] starts, long[] ends) {
+        this.bits = bits;
+        this.blockSize = blockSize;
+        this.length = length;
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    public PackedBits bits() {
+        return this.bits;
+    }
+
+    public int blockSize() {
+        return this.blockSize;
+    }
+
+    /**
+     * @return the total number of characters encoded
+     */
+    public int length() {
+        return this.length;
+    }
+
+    public int blockCount() {
+        return this.starts.length;
+    }
+
+    /**
+     * @param block the index of a block
+     * @return the offset of the first bit of the block
+     */
+    public long blockStart(int block) {
+        return this.starts[block];
+    }
+
+    /**
+     * @param block the index of a block
+     * @return the offset one past the last bit of the block
+     */
+    public long blockEnd(int block) {
+        return this.ends[block];
+    }
+
+    /**
+     * @param block the index of a block
+     * @return the number of characters encoded by the block
+     */
+    int blockLength(int block) {
+        return Math.min(this.blockSize, this.length - block * this.blockSize);
+    }
+
+    /**
+     * Serializes the blocks. A header of varints holds the block size, the number of characters,
+     * and for each block the gap in bits between the end of the previous block and its start,
+     * followed by its length in bits; the packed bits follow the header.
+     *
+     * @return the header followed by the packed bits
+     */
+    public byte[] toBytes() {
+        byte[] bytes = this.bits.bytes();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + 3 * this.starts.length
+                + bytes.length);
+        CodeTable.writeVarInt(out, this.blockSize);
+        CodeTable.writeVarInt(out, this.length);
+        long previous = 0;
+        for (int b = 0; b < this.starts.length; b++) {
+            CodeTable.writeVarLong(out, this.starts[b] - previous);
+            CodeTable.writeVarLong(out, this.ends[b] - this.starts[b]);
+            previous = this.ends[b];
+        }
+        out.write(bytes, 0, (int) ((this.bits.bitLength() + 7) >>> 3));
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads blocks serialized by {@link #toBytes()}.
+     *
+     * @param input the serialized blocks
+     * @return the blocks
+     * @throws IllegalArgumentException if the input is null, its header is corrupt, or the
+     *                                  packed bits do not match the offset table
+     */
+    public static PackedBlocks fromBytes(byte[] input) {
+        if (input == null) {
+            throw new IllegalArgumentException("null input");
+        }
+        int[] position = {0};
+        int blockSize = CodeTable.readVarInt(input, position);
+        int length = CodeTable.readVarInt(input, position);
+        if (blockSize <= 0 || length < 0) {
+            throw new IllegalArgumentException("corrupt header");
+        }
+        long count = ((long) length + blockSize - 1) / blockSize;
+        // every block takes at least two header bytes, which bounds the table allocation
+        if (count > (input.length - position[0]) / 2) {
+            throw new IllegalArgumentException("corrupt header");
+        }
+        long[] starts = new long[(int) count];
+        long[] ends = new long[(int) count];
+        long previous = 0;
+        for (int b = 0; b < count; b++) {
+            long gap = CodeTable.readVarLong(input, position);
+            long bits = CodeTable.readVarLong(input, position);
+            if (gap < 0 || bits < 0 || gap > Long.MAX_VALUE / 2 - previous
+                    || bits > Long.MAX_VALUE / 2 - previous - gap) {
+                throw new IllegalArgumentException("corrupt header");
+            }
+            starts[b] = previous + gap;
+            ends[b] = starts[b] + bits;
+            previous = ends[b];
+        }
+        if ((previous + 7) >>> 3 != input.length - position[0]) {
+            throw new IllegalArgumentException("corrupt header");
+        }
+        byte[] bytes = Arrays.copyOfRange(input, position[0], input.length);
+        return new PackedBlocks(new PackedBits(bytes, previous), blockSize, length, starts, ends);
+    }
+}
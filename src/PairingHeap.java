@@ -0,0 +1,309 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A pairing heap. Every element lives in its own node, and {@link #insert(Comparable, Object)}
+ * returns that node as a {@link Handle}, so a caller that keeps the handle can decrease its key
+ * in O(1) amortized time without any lookup. Two heaps can be melded into one by linking their
+ * roots, though {@link #meld(PairingHeap)} is not O(1) overall: it also merges the value to handle
+ * maps, which takes time proportional to the smaller heap.
+ * <p>
+ * The value-based {@link BinaryMinHeap} methods are supported through a value to handle map,
+ * which costs one hash lookup per call.
+ *
+ * @param <Key> {@inheritDoc}
+ * @param <V>   {@inheritDoc}
+ */
+public class PairingHeap<Key extends Comparable<Key>, V> implements BinaryMinHeap<Key, V> {
+
+    /**
+     * A reference to an element of a pairing heap, valid until the element is extracted.
+     */
+    public static final class Handle<Key, V> {
+        Key key;
+        final V value;
+        Group group;
+        Handle<Key, V> child;
+        Handle<Key, V> sibling;
+        /**
+         * The parent if this is a first child, otherwise the previous sibling.
+         */
+        Handle<Key, V> prev;
+
+        Handle(Key key, V value, Group group) {
+            this.key = key;
+            this.value = value;
+            this.group = group;
+        }
+
+        public Key key() {
+            return this.key;
+        }
+
+        public V value() {
+            return this.value;
+        }
+    }
+
+    /**
+     * Identifies the heap a handle belongs to. Melding points the absorbed heap's group at this
+     * heap's, so handles are re-homed without visiting them.
+     */
+    static final class Group {
+        Group parent;
+
+        Group find() {
+            Group g = this;
+            while (g.parent != null) {
+                if (g.parent.parent != null) {
+                    g.parent = g.parent.parent;
+                }
+                g = g.parent;
+            }
+            return g;
+        }
+    }
+
+    Handle<Key, V> root;
+    HashMap<V, Handle<Key, V>> handles;
+    Group group;
+    private Handle<Key, V>[] pairs;
+
+    @SuppressWarnings("unchecked")
+    public PairingHeap() {
+        this.handles = new HashMap<V, Handle<Key, V>>();
+        this.group = new Group();
+        this.pairs = (Handle<Key, V>[]) new Handle<?, ?>[16];
+    }
+
+    @Override
+    public int size() {
+        return this.handles.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.root == null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsValue(V value) {
+        return this.handles.containsKey(value);
+    }
+
+    /**
+     * Runtime: O(1)
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    public void add(Key key, V value) {
+        insert(key, value);
+    }
+
+    /**
+     * Inserts a value and returns a handle to it.
+     * <p>
+     * Runtime: O(1)
+     *
+     * @param key   the priority key to associate with the value, must be non-null
+     * @param value the value to insert into the heap, may be null
+     * @return a handle for {@link #decreaseKey(Handle, Comparable)}
+     * @throws IllegalArgumentException if key is null or value is already in the min-heap
+     */
+    public Handle<Key, V> insert(Key key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("null key");
+        }
+        if (this.handles.containsKey(value)) {
+            throw new IllegalArgumentException("value already in heap");
+        }
+        Handle<Key, V> node = new Handle<Key, V>(key, value, this.group);
+        this.handles.put(value, node);
+        this.root = this.root == null ? node : link(this.root, node);
+        return node;
+    }
+
+    /**
+     * Runtime: O(1) amortized
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    public void decreaseKey(V value, Key newKey) {
+        Handle<Key, V> node = this.handles.get(value);
+        if (node == null) {
+            throw new NoSuchElementException("value does not exist");
+        }
+        decreaseKey(node, newKey);
+    }
+
+    /**
+     * Updates the key of the element behind a handle to a smaller key.
+     * <p>
+     * Runtime: O(1) amortized
+     *
+     * @param handle the handle returned when the element was inserted
+     * @param newKey the key to update the element with
+     * @throws NoSuchElementException   if the element is not in this heap
+     * @throws IllegalArgumentException if newKey is null or newKey > key(value)
+     */
+    public void decreaseKey(Handle<Key, V> handle, Key newKey) {
+        if (handle == null || handle.group == null || handle.group.find() != this.group) {
+            throw new NoSuchElementException("value does not exist");
+        }
+        if (newKey == null) {
+            throw new IllegalArgumentException("null key");
+        }
+        if (newKey.compareTo(handle.key) > 0) {
+            throw new IllegalArgumentException("larger new key");
+        }
+        handle.key = newKey;
+        if (handle == this.root) {
+            return;
+        }
+        if (handle.prev.child == handle) {
+            handle.prev.child = handle.sibling;
+        } else {
+            handle.prev.sibling = handle.sibling;
+        }
+        if (handle.sibling != null) {
+            handle.sibling.prev = handle.prev;
+        }
+        handle.sibling = null;
+        handle.prev = null;
+        this.root = link(this.root, handle);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Entry<Key, V> peek() {
+        if (this.root == null) {
+            throw new NoSuchElementException("empty heap");
+        }
+        return new Entry<Key, V>(this.root.key, this.root.value);
+    }
+
+    /**
+     * Runtime: O(log n) amortized
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    public Entry<Key, V> extractMin() {
+        if (this.root == null) {
+            throw new NoSuchElementException("empty heap");
+        }
+        Handle<Key, V> min = this.root;
+        this.handles.remove(min.value);
+        min.group = null;
+        this.root = combine(min.child);
+        min.child = null;
+        return new Entry<Key, V>(min.key, min.value);
+    }
+
+    /**
+     * Moves every element of {@code other} into this heap, leaving {@code other} empty. Handles
+     * into {@code other} stay valid and now refer to this heap.
+     * <p>
+     * Runtime: O(min(n, m)). Linking the two trees and re-homing the handles of {@code other} is
+     * O(1), but the value maps must still be checked for shared values and merged, which visits
+     * every value of the smaller heap. Heaps used only through handles pay this too.
+     *
+     * @param other the heap to absorb
+     * @throws IllegalArgumentException if other is null, this heap, or shares a value with this
+     *                                  heap
+     */
+    public void meld(PairingHeap<Key, V> other) {
+        if (other == null || other == this) {
+            throw new IllegalArgumentException("invalid heap");
+        }
+        HashMap<V, Handle<Key, V>> small = this.handles;
+        HashMap<V, Handle<Key, V>> large = other.handles;
+        if (small.size() > large.size()) {
+            small = other.handles;
+            large = this.handles;
+        }
+        for (V value : small.keySet()) {
+            if (large.containsKey(value)) {
+                throw new IllegalArgumentException("value already in heap");
+            }
+        }
+        large.putAll(small);
+        this.handles = large;
+        other.group.parent = this.group;
+        other.group = new Group();
+        if (other.root != null) {
+            this.root = this.root == null ? other.root : link(this.root, other.root);
+        }
+        other.root = null;
+        other.handles = new HashMap<V, Handle<Key, V>>();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<V> values() {
+        return this.handles.keySet();
+    }
+
+    /**
+     * Makes the root with the larger key the first child of the other.
+     */
+    private Handle<Key, V> link(Handle<Key, V> a, Handle<Key, V> b) {
+        if (b.key.compareTo(a.key) < 0) {
+            Handle<Key, V> t = a;
+            a = b;
+            b = t;
+        }
+        b.prev = a;
+        b.sibling = a.child;
+        if (a.child != null) {
+            a.child.prev = b;
+        }
+        a.child = b;
+        return a;
+    }
+
+    /**
+     * Merges a list of siblings into one tree with the standard two-pass pairing: link
+     * neighbouring pairs left to right, then fold the results right to left.
+     */
+    private Handle<Key, V> combine(Handle<Key, V> first) {
+        if (first == null) {
+            return null;
+        }
+        int n = 0;
+        while (first != null) {
+            Handle<Key, V> a = first;
+            Handle<Key, V> b = a.sibling;
+            first = b == null ? null : b.sibling;
+            a.sibling = null;
+            a.prev = null;
+            if (b != null) {
+                b.sibling = null;
+                b.prev = null;
+                a = link(a, b);
+            }
+            if (n == this.pairs.length) {
+                this.pairs = Arrays.copyOf(this.pairs, n * 2);
+            }
+            this.pairs[n++] = a;
+        }
+        Handle<Key, V> tree = this.pairs[--n];
+        this.pairs[n] = null;
+        while (n > 0) {
+            tree = link(this.pairs[--n], tree);
+            this.pairs[n] = null;
+        }
+        return tree;
+    }
+}
@@ -0,0 +1,117 @@
+import static org.junit.Assert.*;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PairingHeapTest {
+
+    PairingHeap<Integer, Integer> empty;
+
+    @Before
+    public void setUp() {
+        empty = new PairingHeap<>();
+    }
+
+    @Test
+    public void addTest() {
+        empty.add(30, 0);
+        empty.add(5, 1);
+        empty.add(2, 2);
+        assertEquals(3, empty.size());
+        assertEquals(Integer.valueOf(2), empty.peek().key);
+        assertTrue(empty.containsValue(1));
+        assertFalse(empty.containsValue(5));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void addDupeValueTest() {
+        empty.add(1, 5);
+        empty.add(2, 5);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void addNullKeyTest() {
+        empty.add(null, 5);
+    }
+
+    @Test
+    public void decreaseKeyHandleTest() {
+        empty.add(1, 0);
+        PairingHeap.Handle<Integer, Integer> h = empty.insert(30, 1);
+        empty.add(5, 2);
+        empty.decreaseKey(h, 0);
+        assertEquals(Integer.valueOf(0), h.key());
+        assertEquals(Integer.valueOf(1), empty.extractMin().value);
+        assertEquals(Integer.valueOf(0), empty.extractMin().value);
+    }
+
+    @Test (expected = NoSuchElementException.class)
+    public void extractedHandleTest() {
+        PairingHeap.Handle<Integer, Integer> h = empty.insert(30, 1);
+        empty.extractMin();
+        empty.decreaseKey(h, 0);
+    }
+
+    @Test (expected = NoSuchElementException.class)
+    public void foreignHandleTest() {
+        PairingHeap<Integer, Integer> other = new PairingHeap<>();
+        empty.decreaseKey(other.insert(30, 1), 0);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void largerKeyDecreaseKeyTest() {
+        empty.add(0, 1);
+        empty.decreaseKey(1, 2);
+    }
+
+    @Test (expected = NoSuchElementException.class)
+    public void extractMinEmptyTest() {
+        empty.extractMin();
+    }
+
+    @Test
+    public void meldTest() {
+        PairingHeap<Integer, Integer> other = new PairingHeap<>();
+        empty.add(3, 0);
+        empty.add(1, 1);
+        PairingHeap.Handle<Integer, Integer> h = other.insert(7, 2);
+        other.add(2, 3);
+        empty.meld(other);
+        assertTrue(other.isEmpty());
+        assertEquals(0, other.size());
+        assertEquals(4, empty.size());
+        empty.decreaseKey(h, 0);
+        assertEquals(Integer.valueOf(2), empty.extractMin().value);
+        assertEquals(Integer.valueOf(1), empty.extractMin().value);
+        assertEquals(Integer.valueOf(3), empty.extractMin().value);
+        assertEquals(Integer.valueOf(0), empty.extractMin().value);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void meldSharedValueTest() {
+        PairingHeap<Integer, Integer> other = new PairingHeap<>();
+        empty.add(3, 0);
+        other.add(1, 0);
+        empty.meld(other);
+    }
+
+    @Test
+    public void heapSortTest() {
+        Random r = new Random(3);
+        for (int i = 0; i < 5000; i++) {
+            empty.add(r.nextInt(1000), i);
+        }
+        for (int i = 0; i < 5000; i += 2) {
+            empty.decreaseKey(i, -r.nextInt(1000));
+        }
+        int previous = Integer.MIN_VALUE;
+        while (!empty.isEmpty()) {
+            BinaryMinHeap.Entry<Integer, Integer> min = empty.extractMin();
+            assertTrue(previous <= min.key);
+            previous = min.key;
+        }
+    }
+}
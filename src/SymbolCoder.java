@@ -0,0 +1,25 @@
+/**
+ * Something that turns symbols into code words and back, one symbol at a time. Implemented by
+ * the fixed {@link CodeTable} and the {@link AdaptiveHuffman} model, so that {@link HuffmanWriter}
+ * and {@link HuffmanReader} can stream either.
+ */
+interface SymbolCoder {
+
+    /**
+     * Writes the code word of a single symbol.
+     *
+     * @param symbol the symbol to encode
+     * @param out    the destination
+     * @throws IllegalArgumentException if the symbol cannot be encoded
+     */
+    void encode(int symbol, BitWriter out);
+
+    /**
+     * Decodes a single symbol.
+     *
+     * @param in the bits to decode
+     * @return the next decoded symbol
+     * @throws IllegalArgumentException if the upcoming bits are not a code word
+     */
+    int decode(BitReader in);
+}
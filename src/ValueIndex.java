@@ -0,0 +1,113 @@
+/**
+ * Maps heap values to their positions in the heap array. An open-addressing table with linear
+ * probing and backward-shift deletion, storing positions as primitive ints so that moving a value
+ * during a sift step neither boxes nor allocates. Null is a valid value.
+ */
+final class ValueIndex<V> {
+
+    private static final Object NULL = new Object();
+
+    private Object[] keys;
+    private int[] positions;
+    private int size;
+    private int shift;
+
+    ValueIndex(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(expected, 4) * 2 - 1) << 1;
+        this.keys = new Object[capacity];
+        this.positions = new int[capacity];
+        this.shift = Integer.numberOfLeadingZeros(capacity) + 1;
+    }
+
+    private int home(Object key) {
+        return (key.hashCode() * 0x9E3779B9) >>> this.shift;
+    }
+
+    private int slot(Object key) {
+        int mask = this.keys.length - 1;
+        int slot = home(key);
+        while (this.keys[slot] != null && !this.keys[slot].equals(key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * @param value the value to look up
+     * @return the position of the value, or -1 if it is not in the index
+     */
+    int get(V value) {
+        Object key = value == null ? NULL : value;
+        int slot = slot(key);
+        return this.keys[slot] == null ? -1 : this.positions[slot];
+    }
+
+    /**
+     * Sets the position of a value, adding it if it is not in the index yet.
+     */
+    void put(V value, int position) {
+        Object key = value == null ? NULL : value;
+        int slot = slot(key);
+        if (this.keys[slot] == null) {
+            if (2 * (this.size + 1) > this.keys.length) {
+                grow();
+                slot = slot(key);
+            }
+            this.keys[slot] = key;
+            this.size++;
+        }
+        this.positions[slot] = position;
+    }
+
+    /**
+     * Removes a value from the index, if present.
+     */
+    void remove(V value) {
+        Object key = value == null ? NULL : value;
+        int mask = this.keys.length - 1;
+        int slot = slot(key);
+        if (this.keys[slot] == null) {
+            return;
+        }
+        this.size--;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (this.keys[next] == null) {
+                break;
+            }
+            int home = home(this.keys[next]);
+            // move the entry back if its home is not cyclically within (slot, next]
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                this.keys[slot] = this.keys[next];
+                this.positions[slot] = this.positions[next];
+                slot = next;
+            }
+        }
+        this.keys[slot] = null;
+    }
+
+    /**
+     * Grows the table once so that it can hold {@code expected} values without rehashing.
+     */
+    void reserve(int expected) {
+        while (2 * expected > this.keys.length) {
+            grow();
+        }
+    }
+
+    private void grow() {
+        Object[] oldKeys = this.keys;
+        int[] oldPositions = this.positions;
+        this.keys = new Object[oldKeys.length * 2];
+        this.positions = new int[oldKeys.length * 2];
+        this.shift--;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = slot(oldKeys[i]);
+                this.keys[slot] = oldKeys[i];
+                this.positions[slot] = oldPositions[i];
+            }
+        }
+    }
+}
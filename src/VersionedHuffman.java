@@ -0,0 +1,483 @@
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A codec whose model follows the traffic it sees. Every compressed character, and any fed in
+ * through {@link #observe(CharSequence)}, is counted into a live histogram. Every {@code
+ * minObservations} characters the live traffic is checked, in the background: once coding it
+ * with the current model costs more than {@code threshold} times what a model rebuilt from it
+ * would, or it contains a character the model cannot encode, the rebuilt model is swapped in.
+ * <p>
+ * Each model is a numbered, immutable version, swapped in atomically. Compressed output carries
+ * the version it was encoded with, also in its byte form {@link Encoded#toBytes()}, and the last
+ * {@link #RETAINED_VERSIONS} versions stay available for decoding, so data in flight during a
+ * swap still decodes. A rebuilt model keeps every character of the one before, so anything the
+ * old version could encode, the new one can.
+ * <p>
+ * A decoder in another process follows the versions through their headers: {@link
+ * #fromHeader(byte[])} starts a follower from the {@link #header(int)} of one version, and
+ * {@link #install(byte[])} adds later ones as they are published.
+ */
+public class VersionedHuffman {
+
+    static final int RETAINED_VERSIONS = 16;
+    static final double DEFAULT_THRESHOLD = 0.05;
+    static final long DEFAULT_MIN_OBSERVATIONS = 1 << 16;
+    /** Calls shorter than this count each character straight into the live histogram. */
+    private static final int LOCAL_HISTOGRAM_MIN = 1024;
+
+    /**
+     * Output of {@link VersionedHuffman#compress(CharSequence)}: packed bits and the version of
+     * the model that encoded them.
+     */
+    public static final class Encoded {
+
+        private final int version;
+        private final PackedBits bits;
+
+        /**
+         * @param version the version of the model that encoded the bits
+         * @param bits    the packed bits
+         * @throws IllegalArgumentException if bits is null
+         */
+        public Encoded(int version, PackedBits bits) {
+            if (bits == null) {
+                throw new IllegalArgumentException("null bits");
+            }
+            this.version = version;
+            this.bits = bits;
+        }
+
+        public int version() {
+            return this.version;
+        }
+
+        public PackedBits bits() {
+            return this.bits;
+        }
+
+        /**
+         * Serializes the output: a header of varints holding the version and the number of bits,
+         * followed by the packed bits.
+         *
+         * @return the header followed by the packed bits
+         */
+        public byte[] toBytes() {
+            int length = (int) ((this.bits.bitLength() + 7) >>> 3);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(16 + length);
+            CodeTable.writeVarInt(out, this.version);
+            CodeTable.writeVarLong(out, this.bits.bitLength());
+            out.write(this.bits.bytes(), 0, length);
+            return out.toByteArray();
+        }
+
+        /**
+         * Reads output serialized by {@link #toBytes()}.
+         *
+         * @param input the serialized output
+         * @return the output
+         * @throws IllegalArgumentException if the input is null, its header is corrupt, or the
+         *                                  number of bits does not match the bytes that follow
+         */
+        public static Encoded fromBytes(byte[] input) {
+            if (input == null) {
+                throw new IllegalArgumentException("null input");
+            }
+            int[] position = {0};
+            int version = CodeTable.readVarInt(input, position);
+            long bitLength = CodeTable.readVarLong(input, position);
+            if (bitLength < 0 || (bitLength + 7) >>> 3 != input.length - position[0]) {
+                throw new IllegalArgumentException("corrupt header");
+            }
+            byte[] bytes = Arrays.copyOfRange(input, position[0], input.length);
+            return new Encoded(version, new PackedBits(bytes, bitLength));
+        }
+    }
+
+    private static final class Version {
+
+        final int number;
+        final Huffman huffman;
+
+        Version(int number, Huffman huffman) {
+            this.number = number;
+            this.huffman = huffman;
+        }
+    }
+
+    private final double threshold;
+    private final long minObservations;
+    private final Executor executor;
+    /** True for instances from {@link #fromHeader(byte[])}, which never build versions. */
+    private final boolean follower;
+    private volatile Version current;
+    private final Map<Integer, Huffman> versions = new ConcurrentHashMap<Integer, Huffman>();
+    private final AtomicLongArray live = new AtomicLongArray(Histograms.ALPHABET);
+    private final AtomicLong sinceCheck = new AtomicLong();
+    private final AtomicBoolean busy = new AtomicBoolean();
+
+    /**
+     * Wraps a model with the default threshold of 5% and a check every 65536 characters, using
+     * the common {@link ForkJoinPool} for rebuilds.
+     *
+     * @param initial the first version of the model
+     * @throws IllegalArgumentException if initial is null or has no frequencies
+     */
+    public VersionedHuffman(Huffman initial) {
+        this(initial, DEFAULT_THRESHOLD, DEFAULT_MIN_OBSERVATIONS, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param initial         the first version of the model
+     * @param threshold       how much more than a model rebuilt from the live traffic, as a
+     *                        fraction, the current model may cost on that traffic before it is
+     *                        replaced
+     * @param minObservations how many characters to observe between checks, and at least
+     *                        before the first rebuild
+     * @param executor        where to run checks and rebuilds
+     * @throws IllegalArgumentException if initial or executor is null, initial has no
+     *                                  frequencies, threshold is negative or NaN, or
+     *                                  minObservations is not positive
+     */
+    public VersionedHuffman(Huffman initial, double threshold, long minObservations,
+            Executor executor) {
+        this(initial, threshold, minObservations, executor, 0, false);
+        if (initial.freqMap.isEmpty()) {
+            throw new IllegalArgumentException("no frequencies");
+        }
+    }
+
+    private VersionedHuffman(Huffman initial, double threshold, long minObservations,
+            Executor executor, int version, boolean follower) {
+        if (initial == null || executor == null) {
+            throw new IllegalArgumentException("null argument");
+        }
+        if (!(threshold >= 0)) {
+            throw new IllegalArgumentException("negative threshold");
+        }
+        if (minObservations <= 0) {
+            throw new IllegalArgumentException("non positive min observations");
+        }
+        this.threshold = threshold;
+        this.minObservations = minObservations;
+        this.executor = executor;
+        this.follower = follower;
+        install(new Version(version, initial));
+    }
+
+    /**
+     * Starts a follower from a version header, for decoding the output of another instance. A
+     * follower compresses with the newest version it has been given, but never observes traffic
+     * or builds versions of its own; later versions come from {@link #install(byte[])}.
+     *
+     * @param header a header from {@link #header(int)}
+     * @return a follower whose current version is the one in the header
+     * @throws IllegalArgumentException if the header is null or corrupt
+     */
+    public static VersionedHuffman fromHeader(byte[] header) {
+        Version version = readHeader(header);
+        return new VersionedHuffman(version.huffman, DEFAULT_THRESHOLD, DEFAULT_MIN_OBSERVATIONS,
+                Runnable::run, version.number, true);
+    }
+
+    private static Version readHeader(byte[] header) {
+        if (header == null) {
+            throw new IllegalArgumentException("null header");
+        }
+        int[] position = {0};
+        int number = CodeTable.readVarInt(header, position);
+        if (number < 0) {
+            throw new IllegalArgumentException("corrupt header");
+        }
+        return new Version(number, Huffman.fromHeader(Arrays.copyOfRange(header, position[0],
+                header.length)));
+    }
+
+    /**
+     * Serializes a version of the model: a varint of its number followed by its {@link
+     * Huffman#header()}.
+     *
+     * @param version the number of a retained version
+     * @return the version header
+     * @throws IllegalArgumentException if the version does not exist or has been retired
+     * @throws IllegalStateException    if the version does not use canonical code words, which
+     *                                  only the initial model can fail to do
+     */
+    public byte[] header(int version) {
+        byte[] model = version(version).header();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(5 + model.length);
+        CodeTable.writeVarInt(out, version);
+        out.write(model, 0, model.length);
+        return out.toByteArray();
+    }
+
+    /**
+     * Adds a version published by another instance to a follower, making it current if it is
+     * newer than the current one.
+     *
+     * @param header a header from {@link #header(int)}
+     * @throws IllegalArgumentException if the header is null or corrupt
+     * @throws IllegalStateException    if this instance builds its own versions
+     */
+    public void install(byte[] header) {
+        if (!this.follower) {
+            throw new IllegalStateException("not a follower");
+        }
+        Version version = readHeader(header);
+        synchronized (this) {
+            if (version.number > this.current.number) {
+                install(version);
+            } else if (version.number > this.current.number - RETAINED_VERSIONS) {
+                this.versions.putIfAbsent(version.number, version.huffman);
+            }
+        }
+    }
+
+    /**
+     * @return the number of the model currently used for compression
+     */
+    public int version() {
+        return this.current.number;
+    }
+
+    /**
+     * @return the model currently used for compression
+     */
+    public Huffman current() {
+        return this.current.huffman;
+    }
+
+    /**
+     * @param version the number of a model
+     * @return that model
+     * @throws IllegalArgumentException if the version does not exist or has been retired
+     */
+    public Huffman version(int version) {
+        Huffman huffman = this.versions.get(version);
+        if (huffman == null) {
+            throw new IllegalArgumentException("unknown version");
+        }
+        return huffman;
+    }
+
+    /**
+     * Observes the input, then compresses it with the current model.
+     *
+     * @param input the characters to compress, can be empty
+     * @return the binary encoding of the input and the version that encoded it
+     * @throws IllegalArgumentException   if the input is null or contains characters the current
+     *                                    model cannot encode; they are still observed, so a
+     *                                    later version will
+     * @throws RejectedExecutionException if a check was due and the executor refused it; the
+     *                                    input was observed but not compressed
+     */
+    public Encoded compress(CharSequence input) {
+        observe(input);
+        Version version = this.current;
+        return new Encoded(version.number, version.huffman.compressToBytes(input));
+    }
+
+    /**
+     * Decompresses bits with the version of the model that encoded them.
+     *
+     * @param input the output of {@link #compress(CharSequence)}
+     * @return the decoded characters
+     * @throws IllegalArgumentException if the input is null, its version has been retired, or
+     *                                  its bits are not decodable
+     */
+    public String decompress(Encoded input) {
+        if (input == null) {
+            throw new IllegalArgumentException("null input");
+        }
+        PackedBits bits = input.bits();
+        return version(input.version()).decompress(bits.bytes(), bits.bitLength());
+    }
+
+    /**
+     * Counts characters into the live distribution without compressing them, starting a check
+     * in the background once enough have been observed. Followers ignore observations.
+     *
+     * @param input the characters seen
+     * @throws IllegalArgumentException   if input is null
+     * @throws RejectedExecutionException if a check was due and the executor refused it; the
+     *                                    next observation tries again
+     */
+    public void observe(CharSequence input) {
+        if (input == null) {
+            throw new IllegalArgumentException("null input");
+        }
+        if (this.follower) {
+            return;
+        }
+        int length = input.length();
+        if (length < LOCAL_HISTOGRAM_MIN) {
+            for (int i = 0; i < length; i++) {
+                this.live.incrementAndGet(input.charAt(i));
+            }
+        } else {
+            int[] counts = new int[Histograms.ALPHABET];
+            for (int i = 0; i < length; i++) {
+                counts[input.charAt(i)]++;
+            }
+            for (int c = 0; c < counts.length; c++) {
+                if (counts[c] != 0) {
+                    this.live.addAndGet(c, counts[c]);
+                }
+            }
+        }
+        if (this.sinceCheck.addAndGet(length) >= this.minObservations
+                && this.busy.compareAndSet(false, true)) {
+            this.sinceCheck.set(0);
+            try {
+                this.executor.execute(() -> {
+                    try {
+                        if (drift() > this.threshold) {
+                            rebuild(this.current);
+                        }
+                    } finally {
+                        this.busy.set(false);
+                    }
+                });
+            } catch (RuntimeException e) {
+                // nothing will run to clear the flag, and the check is still due
+                this.sinceCheck.addAndGet(this.minObservations);
+                this.busy.set(false);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Measures how much worse the current model codes the traffic observed since it was built
+     * than the model a rebuild would swap in. This is the relative redundancy of the current
+     * code on the live distribution, so it grows with the divergence between the two even when
+     * the live traffic happens to cost less than the model's own {@link
+     * Huffman#expectedEncodingLength()}.
+     * <p>
+     * Runtime: O(65536 + k log k) for an alphabet of k characters
+     *
+     * @return the live cost in bits per character under the current model over that under a
+     *         rebuilt one, minus one; 0 if fewer than {@code minObservations} characters have
+     *         been observed; or positive infinity if the current model cannot encode some of them
+     */
+    public double drift() {
+        Version version = this.current;
+        long[] counts = liveCounts();
+        long total = 0;
+        long bits = 0;
+        boolean unseen = false;
+        for (int c = 0; c < counts.length; c++) {
+            if (counts[c] > 0) {
+                int length = version.huffman.codeTable.length(c);
+                unseen |= length == 0;
+                total += counts[c];
+                bits += counts[c] * length;
+            }
+        }
+        if (total < this.minObservations) {
+            return 0;
+        }
+        if (unseen) {
+            return Double.POSITIVE_INFINITY;
+        }
+        Map<Character, Integer> freq = frequencies(counts, version);
+        int[] symbols = new int[freq.size()];
+        int[] freqs = new int[freq.size()];
+        int i = 0;
+        for (Map.Entry<Character, Integer> e : freq.entrySet()) {
+            symbols[i] = e.getKey();
+            freqs[i] = e.getValue();
+            i++;
+        }
+        int[] lengths = CodeLengths.of(freqs);
+        long optimal = 0;
+        for (i = 0; i < symbols.length; i++) {
+            optimal += counts[symbols[i]] * lengths[i];
+        }
+        return (double) bits / optimal - 1;
+    }
+
+    private long[] liveCounts() {
+        long[] counts = new long[Histograms.ALPHABET];
+        for (int c = 0; c < counts.length; c++) {
+            counts[c] = this.live.get(c);
+        }
+        return counts;
+    }
+
+    /**
+     * @return the frequencies a rebuild from the live counts would use: the counts scaled to
+     *         ints, plus a frequency of 1 for every character of the base version not seen live
+     */
+    private static Map<Character, Integer> frequencies(long[] counts, Version base) {
+        Map<Character, Integer> freq = HuffmanFiles.frequencies(counts);
+        for (int symbol : base.huffman.codeTable.symbols) {
+            freq.putIfAbsent((char) symbol, 1);
+        }
+        return freq;
+    }
+
+    /**
+     * Rebuilds the model from the live distribution in the background, whatever the drift. Does
+     * nothing if no characters have been observed since the last rebuild.
+     *
+     * @return the number of the version in use once the rebuild is done
+     * @throws IllegalStateException if this instance is a follower
+     */
+    public CompletableFuture<Integer> rebuild() {
+        if (this.follower) {
+            throw new IllegalStateException("follower cannot rebuild");
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            synchronized (this) {
+                rebuild(this.current);
+                return this.current.number;
+            }
+        }, this.executor);
+    }
+
+    /**
+     * Builds a model from the live counts and the alphabet of the given version, installs it as
+     * the next version unless another rebuild got there first, and takes the counts it used out
+     * of the live histogram.
+     */
+    private synchronized void rebuild(Version base) {
+        if (this.current != base) {
+            return;
+        }
+        long[] counts = liveCounts();
+        boolean any = false;
+        for (long count : counts) {
+            any |= count > 0;
+        }
+        if (!any) {
+            return;
+        }
+        install(new Version(base.number + 1, Huffman.fromFrequencies(frequencies(counts, base))));
+        for (int c = 0; c < counts.length; c++) {
+            if (counts[c] != 0) {
+                this.live.addAndGet(c, -counts[c]);
+            }
+        }
+    }
+
+    /**
+     * Makes a version current and retires every version {@link #RETAINED_VERSIONS} or more
+     * behind it, including any a follower skipped over.
+     */
+    private void install(Version version) {
+        this.versions.put(version.number, version.huffman);
+        int cutoff = version.number - RETAINED_VERSIONS;
+        this.versions.keySet().removeIf(number -> number <= cutoff);
+        this.current = version;
+    }
+}
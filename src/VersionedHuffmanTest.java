@@ -0,0 +1,222 @@
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class VersionedHuffmanTest {
+
+    private VersionedHuffman codec;
+    private HashMap<Character, Integer> asd;
+
+    @Before
+    public void setUp() {
+        asd = new HashMap<Character, Integer>();
+        asd.put('a', 3);
+        asd.put('s', 2);
+        asd.put('d', 1);
+        codec = new VersionedHuffman(Huffman.fromFrequencies(asd), 0.05, 60, Runnable::run);
+    }
+
+    private static String repeat(String s, int times) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            sb.append(s);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void stableDistributionTest() {
+        for (int i = 0; i < 20; i++) {
+            VersionedHuffman.Encoded encoded = codec.compress("aaassd");
+            assertEquals(0, encoded.version());
+            assertEquals("aaassd", codec.decompress(encoded));
+        }
+        assertEquals(0, codec.version());
+        assertEquals(0, codec.drift(), 1e-9);
+    }
+
+    @Test
+    public void driftRebuildTest() {
+        VersionedHuffman.Encoded old = codec.compress("aaassd");
+        Huffman first = codec.current();
+        codec.compress(repeat("dddds", 5));
+        assertEquals(0, codec.version());
+        codec.compress(repeat("dddds", 6));
+        assertEquals(1, codec.version());
+        assertNotSame(first, codec.current());
+        assertTrue(codec.current().codeTable.length('d') < first.codeTable.length('d'));
+        assertTrue(codec.current().codeTable.contains('a'));
+        assertEquals("aaassd", codec.decompress(old));
+        VersionedHuffman.Encoded fresh = codec.compress("dds");
+        assertEquals(1, fresh.version());
+        assertEquals("dds", codec.decompress(fresh));
+    }
+
+    @Test
+    public void unseenCharacterTest() {
+        try {
+            codec.compress("x");
+            fail();
+        } catch (IllegalArgumentException e) {
+            // observed even though the current version cannot encode it
+        }
+        codec.observe(repeat("a", 60));
+        assertEquals(1, codec.version());
+        assertEquals("xas", codec.decompress(codec.compress("xas")));
+    }
+
+    @Test
+    public void driftTest() {
+        VersionedHuffman idle = new VersionedHuffman(Huffman.fromFrequencies(asd), 0.05, 60,
+                task -> { });
+        idle.observe(repeat("aaassd", 10));
+        assertEquals(0, idle.drift(), 1e-9);
+        idle.observe(repeat("d", 60));
+        assertTrue(idle.drift() > 0.05);
+        idle.observe("x");
+        assertEquals(Double.POSITIVE_INFINITY, idle.drift(), 0);
+        assertEquals(0, idle.version());
+    }
+
+    @Test
+    public void shiftedDistributionTest() {
+        HashMap<Character, Integer> abcd = new HashMap<Character, Integer>();
+        abcd.put('a', 4);
+        abcd.put('b', 2);
+        abcd.put('c', 1);
+        abcd.put('d', 1);
+        VersionedHuffman shifted = new VersionedHuffman(Huffman.fromFrequencies(abcd), 0.05, 100,
+                task -> { });
+        assertEquals(1, shifted.current().codeTable.length('a'));
+        assertEquals(2, shifted.current().codeTable.length('b'));
+        // 1.7 bits per character live, under the model's expected 1.75, but 1.3 once rebuilt
+        shifted.observe(repeat("bbbbbbbaaa", 10));
+        assertEquals(1.7 / 1.3 - 1, shifted.drift(), 1e-9);
+    }
+
+    @Test
+    public void rejectedCheckTest() {
+        VersionedHuffman rejecting = new VersionedHuffman(Huffman.fromFrequencies(asd), 0.05, 60,
+                task -> {
+                    throw new RejectedExecutionException();
+                });
+        try {
+            rejecting.observe(repeat("d", 60));
+            fail();
+        } catch (RejectedExecutionException e) {
+            // nothing ran to clear the busy flag
+        }
+        try {
+            rejecting.observe("d");
+            fail();
+        } catch (RejectedExecutionException e) {
+            // the check stays due, so the next observation tries again
+        }
+    }
+
+    @Test
+    public void encodedBytesTest() {
+        VersionedHuffman.Encoded encoded = codec.compress("aaassdsa");
+        VersionedHuffman.Encoded read = VersionedHuffman.Encoded.fromBytes(encoded.toBytes());
+        assertEquals(encoded.version(), read.version());
+        assertEquals(encoded.bits().bitLength(), read.bits().bitLength());
+        assertEquals("aaassdsa", codec.decompress(read));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void truncatedEncodedTest() {
+        byte[] bytes = codec.compress(repeat("asd", 10)).toBytes();
+        VersionedHuffman.Encoded.fromBytes(Arrays.copyOf(bytes, bytes.length - 1));
+    }
+
+    @Test
+    public void followerTest() {
+        codec.compress(repeat("dddds", 12));
+        assertEquals(1, codec.version());
+        VersionedHuffman follower = VersionedHuffman.fromHeader(codec.header(1));
+        assertEquals(1, follower.version());
+        byte[] first = codec.compress("ddsa").toBytes();
+        assertEquals("ddsa", follower.decompress(VersionedHuffman.Encoded.fromBytes(first)));
+
+        codec.compress(repeat("aaaas", 12));
+        assertEquals(2, codec.version());
+        byte[] second = codec.compress("aasd").toBytes();
+        follower.install(codec.header(2));
+        assertEquals(2, follower.version());
+        assertEquals("aasd", follower.decompress(VersionedHuffman.Encoded.fromBytes(second)));
+        assertEquals("ddsa", follower.decompress(VersionedHuffman.Encoded.fromBytes(first)));
+
+        follower.observe(repeat("x", 100));
+        assertEquals(2, follower.version());
+    }
+
+    @Test
+    public void followerSkipTest() throws Exception {
+        VersionedHuffman follower = VersionedHuffman.fromHeader(codec.header(0));
+        for (int i = 0; i <= VersionedHuffman.RETAINED_VERSIONS; i++) {
+            codec.observe(i % 2 == 0 ? "s" : "d");
+            codec.rebuild().get();
+        }
+        int latest = VersionedHuffman.RETAINED_VERSIONS + 1;
+        assertEquals(latest, codec.version());
+        follower.install(codec.header(latest));
+        assertEquals(latest, follower.version());
+        try {
+            follower.version(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // skipped past, so retired along with everything up to the cutoff
+        }
+        assertSame(follower.current(), follower.version(latest));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void followerRebuildTest() {
+        VersionedHuffman.fromHeader(codec.header(0)).rebuild();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void leaderInstallTest() {
+        codec.install(codec.header(0));
+    }
+
+    @Test
+    public void forcedRebuildTest() throws Exception {
+        codec.observe("ssssd");
+        assertEquals(1, (int) codec.rebuild().get());
+        assertEquals(1, (int) codec.rebuild().get());
+        codec.observe("d");
+        assertEquals(2, (int) codec.rebuild().get());
+        assertSame(codec.current(), codec.version(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void retiredVersionTest() throws Exception {
+        VersionedHuffman.Encoded old = codec.compress("asd");
+        for (int i = 0; i < VersionedHuffman.RETAINED_VERSIONS; i++) {
+            codec.observe("s");
+            codec.rebuild().get();
+        }
+        codec.decompress(old);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void noFrequenciesTest() {
+        new VersionedHuffman(Huffman.fromHeader(Huffman.fromFrequencies(asd).header()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeThresholdTest() {
+        new VersionedHuffman(Huffman.fromFrequencies(asd), -1, 60, Runnable::run);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void minObservationsTest() {
+        new VersionedHuffman(Huffman.fromFrequencies(asd), 0.05, 0, Runnable::run);
+    }
+}
@@ -0,0 +1,66 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * A {@link Histograms.Counter} that counts a vector of characters at a time with the incubating
+ * Vector API. Only loaded by {@link Histograms} when {@code jdk.incubator.vector} is present.
+ * <p>
+ * A gather-increment-scatter of one vector would lose counts whenever two lanes hold the same
+ * character, so each lane counts into its own 256-entry sub-histogram: lane {@code i} of a vector
+ * of Latin-1 characters {@code c} increments {@code sub[256 * i + c]}, and no two lanes ever touch
+ * the same counter. This is also where the scalar loop is slowest, since runs of one character
+ * make every increment wait on the one before. Vectors holding any character above 255 are
+ * counted one character at a time into the full histogram, and the sub-histograms are folded
+ * into it at the end.
+ */
+final class VectorHistograms implements Histograms.Counter {
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    /** Half as wide as {@link #INTS}, so it has the same number of lanes. */
+    private static final VectorSpecies<Short> SHORTS =
+            VectorSpecies.of(short.class, VectorShape.forBitSize(INTS.vectorBitSize() / 2));
+    private static final int LATIN_1 = 256;
+
+    @Override
+    public void count(String seed, int from, int to, int[] counts) {
+        int lanes = INTS.length();
+        int[] sub = new int[LATIN_1 * lanes];
+        int[] offsets = new int[lanes];
+        for (int i = 0; i < lanes; i++) {
+            offsets[i] = LATIN_1 * i;
+        }
+        IntVector base = IntVector.fromArray(INTS, offsets, 0);
+        int[] index = new int[lanes];
+        char[] chars = new char[Math.min(Histograms.CHUNK, to - from)];
+        for (int start = from; start < to; start += Histograms.CHUNK) {
+            int end = Math.min(to, start + Histograms.CHUNK);
+            seed.getChars(start, end, chars, 0);
+            int length = end - start;
+            int i = 0;
+            for (; i <= length - lanes; i += lanes) {
+                ShortVector v = ShortVector.fromCharArray(SHORTS, chars, i);
+                if (v.compare(VectorOperators.UNSIGNED_LT, (short) LATIN_1).allTrue()) {
+                    // Latin-1 values are positive as shorts, so sign extension is harmless
+                    ((IntVector) v.convertShape(VectorOperators.S2I, INTS, 0)).add(base)
+                            .intoArray(index, 0);
+                    IntVector.fromArray(INTS, sub, 0, index, 0).add(1).intoArray(sub, 0, index, 0);
+                } else {
+                    for (int j = i; j < i + lanes; j++) {
+                        counts[chars[j]]++;
+                    }
+                }
+            }
+            for (; i < length; i++) {
+                counts[chars[i]]++;
+            }
+        }
+        for (int lane = 0; lane < lanes; lane++) {
+            for (int c = 0; c < LATIN_1; c++) {
+                counts[c] += sub[LATIN_1 * lane + c];
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class VectorHistogramsTest {
+
+    private static String text(int length, int alphabet, int runs) {
+        Random random = new Random(7);
+        StringBuilder s = new StringBuilder();
+        while (s.length() < length) {
+            char c = (char) random.nextInt(alphabet);
+            for (int i = random.nextInt(runs) + 1; i > 0; i--) {
+                s.append(c);
+            }
+        }
+        s.setLength(length);
+        return s.toString();
+    }
+
+    @Test
+    public void counterTest() {
+        assertEquals("false".equals(System.getProperty("huffman.vector")),
+                !(Histograms.COUNTER instanceof VectorHistograms));
+    }
+
+    @Test
+    public void countTest() {
+        Histograms.Counter vector = new VectorHistograms();
+        String[] seeds = {
+            "", "a", text(1000, 3, 50), text(20001, 256, 3), text(20001, 300, 5),
+            text(5000, Histograms.ALPHABET, 4) + "\uFFFF\u8000\u00FF\u0100",
+        };
+        for (String seed : seeds) {
+            for (int from : new int[] {0, Math.min(3, seed.length())}) {
+                int[] expected = new int[Histograms.ALPHABET];
+                int[] counts = new int[Histograms.ALPHABET];
+                Histograms.countScalar(seed, from, seed.length(), expected);
+                vector.count(seed, from, seed.length(), counts);
+                assertArrayEquals(expected, counts);
+            }
+        }
+    }
+}